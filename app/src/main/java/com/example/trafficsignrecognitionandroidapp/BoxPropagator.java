@@ -0,0 +1,234 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.video.Video;
+
+import java.util.Arrays;
+
+public class BoxPropagator {
+
+    // gray snapshots of last submitted frames, boxes arrive for one of them
+    private static final int HISTORY = 3;
+
+    // keypoints
+    private static final int MAX_POINTS_PER_BOX = 20;
+    private static final int MIN_POINTS_PER_BOX = 3;
+    private static final double QUALITY_LEVEL = 0.01;
+    private static final double MIN_DISTANCE = 3;
+    private static final Size WINDOW_SIZE = new Size(15, 15);
+    private static final int MAX_LEVEL = 2;
+
+    // snapshots for detection frames
+    private final Mat[] grayHistory = new Mat[HISTORY];
+    private final long[] historyIds = new long[HISTORY];
+    private int historyNext = 0;
+
+    // propagated boxes (normalized, rotated detection frame as DetectionBatch)
+    private final DetectionBatch boxes;
+
+    // detection frame -> camera frame the flow runs on, and back
+    private final FrameTransform toFrame = new FrameTransform().setRotatedClockwise();
+    private final FrameTransform fromFrame = new FrameTransform().set(toFrame).invert();
+
+    // optical flow state, reused
+    private final Mat previousGray = new Mat();
+    private final MatOfPoint corners = new MatOfPoint();
+    private final MatOfPoint2f previousPoints = new MatOfPoint2f();
+    private final MatOfPoint2f nextPoints = new MatOfPoint2f();
+    private final MatOfByte status = new MatOfByte();
+    private final MatOfFloat error = new MatOfFloat();
+    private final int[] cornerValues = new int[2 * MAX_POINTS_PER_BOX];
+    private float[] points;
+    private float[] movedPoints;
+    private byte[] statusValues;
+    private int[] pointBox;
+    private int pointCount = 0;
+
+    // median displacement of each box
+    private final float[] dx = new float[MAX_POINTS_PER_BOX];
+    private final float[] dy = new float[MAX_POINTS_PER_BOX];
+
+    /*------------------------------*/
+    /* BoxPropagator constructor    */
+    /*------------------------------*/
+    public BoxPropagator(int capacity) {
+        boxes = new DetectionBatch(capacity);
+        int maxPoints = capacity * MAX_POINTS_PER_BOX;
+        points = new float[2 * maxPoints];
+        movedPoints = new float[2 * maxPoints];
+        statusValues = new byte[maxPoints];
+        pointBox = new int[maxPoints];
+        for (int i = 0; i < HISTORY; i++) {
+            grayHistory[i] = new Mat();
+            historyIds[i] = -1;
+        }
+    }
+
+    // same transform as overlay, shared by camera view
+    public void setFrameTransform(FrameTransform toFrame) {
+        this.toFrame.set(toFrame);
+        fromFrame.set(toFrame).invert();
+    }
+
+    /*------------------------------------------*/
+    /* Keep gray of frame sent to detection     */
+    /*------------------------------------------*/
+    public void snapshot(long frameId, Mat gray) {
+        if (frameId < 0) {
+            return;
+        }
+        gray.copyTo(grayHistory[historyNext]);
+        historyIds[historyNext] = frameId;
+        historyNext = (historyNext + 1) % HISTORY;
+    }
+
+    /*----------------------------------------------------------*/
+    /* New detection: seed keypoints, catch up to current frame */
+    /*----------------------------------------------------------*/
+    public DetectionBatch reset(DetectionBatch batch, Mat currentGray) {
+        boxes.copyFrom(batch);
+
+        // frame boxes were detected on, current one if snapshot was overwritten
+        Mat detectionGray = currentGray;
+        for (int i = 0; i < HISTORY; i++) {
+            if (historyIds[i] == batch.frameId && batch.frameId >= 0) {
+                detectionGray = grayHistory[i];
+            }
+        }
+
+        // keypoints inside each box
+        int frameWidth = detectionGray.cols();
+        int frameHeight = detectionGray.rows();
+        pointCount = 0;
+        for (int b = 0; b < boxes.getCount(); b++) {
+            float x = toFrame.mapX(boxes.x[b], boxes.y[b]);
+            float y = toFrame.mapY(boxes.x[b], boxes.y[b]);
+            float w = toFrame.mapW(boxes.w[b], boxes.h[b]);
+            float h = toFrame.mapH(boxes.w[b], boxes.h[b]);
+            int left = clamp((int) ((x - w / 2) * frameWidth), frameWidth);
+            int top = clamp((int) ((y - h / 2) * frameHeight), frameHeight);
+            int right = clamp((int) ((x + w / 2) * frameWidth), frameWidth);
+            int bottom = clamp((int) ((y + h / 2) * frameHeight), frameHeight);
+            if (right - left < 2 || bottom - top < 2) {
+                continue;
+            }
+
+            Mat roi = detectionGray.submat(top, bottom, left, right);
+            Imgproc.goodFeaturesToTrack(roi, corners, MAX_POINTS_PER_BOX, QUALITY_LEVEL, MIN_DISTANCE);
+            roi.release();
+
+            int found = (int) corners.total();
+            if (found == 0) {
+                continue;
+            }
+            corners.get(0, 0, cornerValues);
+            for (int k = 0; k < found; k++) {
+                points[2 * pointCount] = cornerValues[2 * k] + left;
+                points[2 * pointCount + 1] = cornerValues[2 * k + 1] + top;
+                pointBox[pointCount] = b;
+                pointCount++;
+            }
+        }
+        detectionGray.copyTo(previousGray);
+
+        // move boxes from detection frame to current frame
+        if (detectionGray != currentGray) {
+            propagate(currentGray);
+        }
+        return boxes;
+    }
+
+    /*------------------------------------------------*/
+    /* Frame without detection: move boxes with flow  */
+    /*------------------------------------------------*/
+    public DetectionBatch propagate(Mat gray) {
+        if (pointCount == 0 || previousGray.empty()) {
+            gray.copyTo(previousGray);
+            return boxes;
+        }
+
+        // sparse pyramidal Lucas-Kanade on all keypoints at once
+        previousPoints.create(pointCount, 1, CvType.CV_32FC2);
+        previousPoints.put(0, 0, points); // copies first pointCount points only
+        Video.calcOpticalFlowPyrLK(previousGray, gray, previousPoints, nextPoints, status, error, WINDOW_SIZE, MAX_LEVEL);
+        nextPoints.get(0, 0, movedPoints);
+        status.get(0, 0, statusValues);
+
+        int frameWidth = gray.cols();
+        int frameHeight = gray.rows();
+        int kept = 0;
+        for (int b = 0; b < boxes.getCount(); b++) {
+            // displacement of tracked points of box
+            int n = 0;
+            for (int k = 0; k < pointCount; k++) {
+                if (pointBox[k] == b && statusValues[k] != 0) {
+                    dx[n] = movedPoints[2 * k] - points[2 * k];
+                    dy[n] = movedPoints[2 * k + 1] - points[2 * k + 1];
+                    n++;
+                }
+            }
+            if (n < MIN_POINTS_PER_BOX) {
+                continue;
+            }
+
+            // median is robust to points on background
+            Arrays.sort(dx, 0, n);
+            Arrays.sort(dy, 0, n);
+            float frameX = toFrame.mapX(boxes.x[b], boxes.y[b]) + dx[n / 2] / frameWidth;
+            float frameY = toFrame.mapY(boxes.x[b], boxes.y[b]) + dy[n / 2] / frameHeight;
+            boxes.x[b] = fromFrame.mapX(frameX, frameY);
+            boxes.y[b] = fromFrame.mapY(frameX, frameY);
+        }
+
+        // keep only tracked points for next frame
+        for (int k = 0; k < pointCount; k++) {
+            if (statusValues[k] != 0) {
+                points[2 * kept] = movedPoints[2 * k];
+                points[2 * kept + 1] = movedPoints[2 * k + 1];
+                pointBox[kept] = pointBox[k];
+                kept++;
+            }
+        }
+        pointCount = kept;
+
+        gray.copyTo(previousGray);
+        return boxes;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public DetectionBatch getBoxes() {
+        return boxes;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    /*------------------------------*/
+    /* Release native memory        */
+    /*------------------------------*/
+    public void release() {
+        for (Mat gray : grayHistory) {
+            gray.release();
+        }
+        previousGray.release();
+        corners.release();
+        previousPoints.release();
+        nextPoints.release();
+        status.release();
+        error.release();
+    }
+}
@@ -23,13 +23,11 @@ import android.widget.TableRow;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
-import org.opencv.android.BaseLoaderCallback;
 import org.opencv.android.CameraBridgeViewBase;
-import org.opencv.android.LoaderCallbackInterface;
-import org.opencv.android.OpenCVLoader;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -43,7 +41,9 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
 
     private Mat mRgba;
     private CameraBridgeViewBase mOpenCvCameraView;
+    private DetectionOverlayView overlayView;
     private SignRecognition signRecognition;
+    private InferenceScheduler inferenceScheduler;
     private ListView listView;
     private TableLayout table;
     private TableRow tableRow;
@@ -52,23 +52,17 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
     public static List<Integer> displayedSignClass = new ArrayList<>();
     public static ArrayAdapter<String> adapterResults;
     public boolean lockPreview = false;
+    private boolean latencyDebug = false; // latency overlay + dump in app files on pause
+    private boolean detectEveryN = true; // detection every N frames (adaptive), optical flow in between
+    private boolean regionProposals = false; // detection on sign coloured region only, full frame on timer
+    private boolean yuvInput = true; // camera YUV converted straight into model input (no RGBA copy, rotate, resize)
+    private boolean vectorOverlay = true; // boxes drawn by transparent view over camera surface, not in frame
+    private boolean tracking = true; // stable sign tracks: smoothed boxes, preview strip filled once for each physical sign
 
-    private BaseLoaderCallback mLoaderCallback = new BaseLoaderCallback(this) {
-        @Override
-        public void onManagerConnected(int status) {
-            switch (status) {
-                case LoaderCallbackInterface
-                        .SUCCESS: {
-                    Log.i(TAG, "Opencv loaded: ");
-                    mOpenCvCameraView.enableView();
-                }
-                default: {
-                    super.onManagerConnected(status);
-                }
-                break;
-            }
-        }
-    };
+    // classes of last confirmed tracks, newest first (UI thread only)
+    private final List<Integer> confirmedSignClass = new ArrayList<>();
+
+    private boolean resumed = false; // camera enabled once resumed and engine ready
 
     public CameraActivity() {
         Log.i(TAG, "CameraActivity: Instantiate new" + this.getClass());
@@ -133,15 +127,18 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
         mOpenCvCameraView.setCvCameraViewListener(this);
         mOpenCvCameraView.enableFpsMeter(); // fps
         mOpenCvCameraView.setMaxFrameSize(640, 640); // max frame size improve FPS
+        overlayView = findViewById(R.id.detection_overlay);
+        LatencyMetrics.setOverlayEnabled(latencyDebug);
 
-        // get model
-        try {
-            signRecognition = new SignRecognition(getAssets());
-            Log.d(TAG, "Model is successfully loaded");
-        } catch (IOException e) {
-            Log.d(TAG, "Getting some error");
-            e.printStackTrace();
-        }
+        // camera starts once OpenCV and models are loaded by application
+        ((TrafficSignApplication) getApplication()).getReady().whenCompleteAsync((engine, failure) -> {
+            if (failure != null) {
+                Log.d(TAG, "Getting some error: " + failure.getMessage());
+            }
+            else if (!isDestroyed()) {
+                onEngineReady();
+            }
+        }, ContextCompat.getMainExecutor(this));
 
         // list of results frontend
         adapterResults = new ArrayAdapter<>(this, R.layout.list_item, listOfResults);
@@ -154,27 +151,71 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
         tableRow = (TableRow) table.getChildAt(0);
     }
 
+    /*----------------------------------------------*/
+    /* Engine loaded -> scheduler, then camera      */
+    /*----------------------------------------------*/
+    private void onEngineReady() {
+        // get shared model (already loaded, reference for this activity)
+        try {
+            signRecognition = SignRecognitionRegistry.acquire(this);
+            // camera thread draws with its own renderer, model renderer kept for still images
+            ((JavaCameraDetectionView) mOpenCvCameraView).setOverlayRenderer(signRecognition.createOverlayRenderer());
+            if (vectorOverlay) {
+                overlayView.setOverlayRenderer(signRecognition.getOverlayRenderer());
+                ((JavaCameraDetectionView) mOpenCvCameraView).setOverlayView(overlayView);
+            }
+
+            // dedicated inference threads, latest camera frame wins
+            inferenceScheduler = new InferenceScheduler(signRecognition);
+            inferenceScheduler.setListener(this::updateResultsOnLayout);
+            inferenceScheduler.setRegionProposals(regionProposals);
+            inferenceScheduler.setYuvInput(yuvInput);
+            inferenceScheduler.setTracking(tracking, this::onTrackConfirmed);
+            ((JavaCameraDetectionView) mOpenCvCameraView).setInferenceScheduler(inferenceScheduler);
+            if (detectEveryN) {
+                ((JavaCameraDetectionView) mOpenCvCameraView).setDetectionCadence(new DetectionCadence(1, 8),
+                        signRecognition.getDetectionBatchPool().getCapacity());
+            }
+            Log.d(TAG, "Model is successfully loaded");
+        } catch (IOException e) {
+            Log.d(TAG, "Getting some error");
+            e.printStackTrace();
+            return;
+        }
+
+        if (resumed) {
+            mOpenCvCameraView.enableView();
+        }
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
+        resumed = true;
 
-        // check Opencv load status
-        if (OpenCVLoader.initDebug()) {
-            Log.d(TAG, "Opencv: initialized success ");
-            mLoaderCallback.onManagerConnected(LoaderCallbackInterface.SUCCESS);
-        } else {
-            Log.d(TAG, "Opencv: initialized fail");
-            OpenCVLoader.initAsync(OpenCVLoader.OPENCV_VERSION_3_4_0, this, mLoaderCallback);
+        // engine not ready yet -> camera enabled by onEngineReady
+        if (signRecognition != null) {
+            mOpenCvCameraView.enableView();
         }
     }
 
     @Override
     protected void onPause() {
         super.onPause();
+        resumed = false;
 
         if (mOpenCvCameraView != null) {
             mOpenCvCameraView.disableView();
         }
+
+        // save latency percentiles of this session
+        if (latencyDebug) {
+            try {
+                LatencyMetrics.dump(new File(getExternalFilesDir(null), "latency.csv"));
+            } catch (IOException e) {
+                Log.e(TAG, "onPause: latency dump failed: " + e.getMessage());
+            }
+        }
     }
 
     public void onDestroy() {
@@ -183,13 +224,30 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
         if (mOpenCvCameraView != null) {
             mOpenCvCameraView.disableView();
         }
+
+        // stop inference before model is released
+        if (inferenceScheduler != null) {
+            inferenceScheduler.stop();
+        }
+
+        // release shared model
+        SignRecognitionRegistry.release(signRecognition);
+        signRecognition = null;
     }
 
     public void onCameraViewStarted(int width, int height) {
         mRgba = new Mat(height, width, CvType.CV_8UC4);
+
+        if (inferenceScheduler != null) {
+            inferenceScheduler.start();
+        }
     }
 
     public void onCameraViewStopped() {
+        if (inferenceScheduler != null) {
+            inferenceScheduler.stop();
+        }
+
         mRgba.release();
     }
 
@@ -206,38 +264,54 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
 
     @Override
     public CompletableFuture<?> onCameraFrameAsync(CameraBridgeViewBase.CvCameraViewFrame inputFrame) {
-        Log.d(TAG, "onCameraFrameAsync: Get frame and send to detection");
-
-        // get frame for detection on separate thread -> unblocking UI
-        return CompletableFuture.supplyAsync(() -> {
-
-            // set detected signs on layout in main thread + results
-            if(!lockPreview) {
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            setLockPreview(true);
-
-                            // see results on main thread for UI
-                            notifyRecognitionResultsChanged();
-
-                            // preview signs
-                            setRecognizedSignsPreviewOnLayout();
-
-                            // lock preview
-                            setLockPreview(false);
-                        }
-                        catch (Exception e) {
-                            Log.e(TAG, "UI thread run: " + e.getMessage());
-                        }
+        // frames are submitted to InferenceScheduler by JavaCameraDetectionView -> no future per frame
+        return null;
+    }
+
+    /*----------------------------------------------*/
+    /* Called on inference thread for each result   */
+    /*----------------------------------------------*/
+    private void updateResultsOnLayout() {
+        // set detected signs on layout in main thread + results
+        if(!lockPreview) {
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        setLockPreview(true);
+
+                        // see results on main thread for UI
+                        notifyRecognitionResultsChanged();
+
+                        // preview signs
+                        setRecognizedSignsPreviewOnLayout();
+
+                        // lock preview
+                        setLockPreview(false);
                     }
-                });
-            }
+                    catch (Exception e) {
+                        Log.e(TAG, "UI thread run: " + e.getMessage());
+                    }
+                }
+            });
+        }
+    }
 
-            // return next frame
-            mRgba = inputFrame.rgba();
-            return signRecognition.detectionFrame(mRgba);
+    /*----------------------------------------------*/
+    /* Called on inference thread for each new sign */
+    /*----------------------------------------------*/
+    private void onTrackConfirmed(SignTracker.Track track) {
+        // track is reused by tracker -> only class leaves inference thread
+        int classId = track.getClassId();
+        if (classId < 0) {
+            return;
+        }
+        runOnUiThread(() -> {
+            confirmedSignClass.remove(Integer.valueOf(classId));
+            confirmedSignClass.add(0, classId);
+            while (confirmedSignClass.size() > displayedRecognizedSignPreview) {
+                confirmedSignClass.remove(confirmedSignClass.size() - 1);
+            }
         });
     }
 
@@ -252,8 +326,8 @@ public class CameraActivity extends Activity implements CameraBridgeViewBase.CvC
         ImageView recognizedSign;
         Drawable res;
 
-        // remove duplicate
-        List<Integer> displayedSignClassSet = new ArrayList<>(new HashSet<>(displayedSignClass));
+        // tracking: last physical signs seen, otherwise classes of current frame without duplicates
+        List<Integer> displayedSignClassSet = tracking ? confirmedSignClass : new ArrayList<>(new HashSet<>(displayedSignClass));
 
         // get first displayedRecognizedSignPreview recognized sign preview
         for (int c = 0; c < displayedRecognizedSignPreview; c++) {
@@ -0,0 +1,122 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+public class DetectionBatch {
+
+    // boxes, normalized center format in detection frame
+    public final float[] x;
+    public final float[] y;
+    public final float[] w;
+    public final float[] h;
+
+    // scores & classes
+    public final float[] detectionScore;
+    public final int[] classId;
+    public final float[] classScore;
+
+    // stable id of physical sign (SignTracker), -1 if not tracked
+    public final int[] trackId;
+
+    // latency of whole batch (ms)
+    public int detectionLatency;
+    public int recognitionLatency;
+
+    // camera frame the batch was computed on (InferenceScheduler), -1 if unknown
+    public long frameId = -1;
+
+    // data members
+    private final int capacity;
+    private int count;
+    DetectionBatchPool pool;
+
+    /*------------------------------*/
+    /* DetectionBatch constructor   */
+    /*------------------------------*/
+    public DetectionBatch(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        w = new float[capacity];
+        h = new float[capacity];
+        detectionScore = new float[capacity];
+        classId = new int[capacity];
+        classScore = new float[capacity];
+        trackId = new int[capacity];
+    }
+
+    /*------------------------------*/
+    /* Add detection, return index  */
+    /*------------------------------*/
+    public int add(float x, float y, float w, float h, float detectionScore) {
+        if (count == capacity) {
+            return -1;
+        }
+
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.w[i] = w;
+        this.h[i] = h;
+        this.detectionScore[i] = detectionScore;
+        classId[i] = -1;
+        classScore[i] = 0;
+        trackId[i] = -1;
+        return i;
+    }
+
+    public void setClass(int i, int classId, float classScore) {
+        this.classId[i] = classId;
+        this.classScore[i] = classScore;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getTotalLatency() {
+        return detectionLatency + recognitionLatency;
+    }
+
+    /*------------------------------*/
+    /* Reset for next frame         */
+    /*------------------------------*/
+    public void clear() {
+        count = 0;
+        detectionLatency = 0;
+        recognitionLatency = 0;
+        frameId = -1;
+    }
+
+    /*------------------------------*/
+    /* Copy all results of batch    */
+    /*------------------------------*/
+    public void copyFrom(DetectionBatch batch) {
+        count = Math.min(batch.count, capacity);
+        System.arraycopy(batch.x, 0, x, 0, count);
+        System.arraycopy(batch.y, 0, y, 0, count);
+        System.arraycopy(batch.w, 0, w, 0, count);
+        System.arraycopy(batch.h, 0, h, 0, count);
+        System.arraycopy(batch.detectionScore, 0, detectionScore, 0, count);
+        System.arraycopy(batch.classId, 0, classId, 0, count);
+        System.arraycopy(batch.classScore, 0, classScore, 0, count);
+        System.arraycopy(batch.trackId, 0, trackId, 0, count);
+        detectionLatency = batch.detectionLatency;
+        recognitionLatency = batch.recognitionLatency;
+        frameId = batch.frameId;
+    }
+
+    /*------------------------------*/
+    /* Give back to owning pool     */
+    /*------------------------------*/
+    public void recycle() {
+        if (pool != null) {
+            pool.recycle(this);
+        }
+    }
+}
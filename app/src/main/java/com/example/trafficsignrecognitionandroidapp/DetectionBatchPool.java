@@ -0,0 +1,50 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.util.ArrayDeque;
+
+public class DetectionBatchPool {
+
+    // data members
+    private final int capacity;
+    private final ArrayDeque<DetectionBatch> free = new ArrayDeque<>();
+    private int allocationCount = 0;
+
+    /*---------------------------------*/
+    /* DetectionBatchPool constructor  */
+    /*---------------------------------*/
+    public DetectionBatchPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /*------------------------------------------*/
+    /* Get empty batch, allocate only if none   */
+    /*------------------------------------------*/
+    public synchronized DetectionBatch acquire() {
+        DetectionBatch batch = free.poll();
+        if (batch == null) {
+            batch = new DetectionBatch(capacity);
+            batch.pool = this;
+            allocationCount++;
+        }
+
+        batch.clear();
+        return batch;
+    }
+
+    /*------------------------------*/
+    /* Batch can be reused          */
+    /*------------------------------*/
+    public synchronized void recycle(DetectionBatch batch) {
+        if (batch.pool == this && !free.contains(batch)) {
+            free.push(batch);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getAllocationCount() {
+        return allocationCount;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+public class DetectionCadence {
+
+    // smoothing of measured times (exponential moving average)
+    private static final float ALPHA = 0.2F;
+
+    // data members
+    private final int minInterval;
+    private final int maxInterval;
+    private float frameIntervalMs = 0;
+    private float detectionLatencyMs = 0;
+    private int interval;
+    private int framesSinceDetection = 0;
+    private boolean detectionRequested = true; // first frame is always detected
+
+    /*-------------------------------*/
+    /* DetectionCadence constructor  */
+    /*-------------------------------*/
+    public DetectionCadence(int minInterval, int maxInterval) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        interval = minInterval;
+    }
+
+    /*------------------------------*/
+    /* Measurements                 */
+    /*------------------------------*/
+    public void recordFrameInterval(float ms) {
+        frameIntervalMs = frameIntervalMs == 0 ? ms : frameIntervalMs + ALPHA * (ms - frameIntervalMs);
+        updateInterval();
+    }
+
+    public void recordDetectionLatency(float ms) {
+        detectionLatencyMs = detectionLatencyMs == 0 ? ms : detectionLatencyMs + ALPHA * (ms - detectionLatencyMs);
+        updateInterval();
+    }
+
+    // detect once for each time detection takes -> model never queues behind camera
+    private void updateInterval() {
+        if (frameIntervalMs <= 0 || detectionLatencyMs <= 0) {
+            return;
+        }
+        int frames = (int) Math.ceil(detectionLatencyMs / frameIntervalMs);
+        interval = Math.max(minInterval, Math.min(maxInterval, frames));
+    }
+
+    /*------------------------------------------*/
+    /* Called once for each camera frame        */
+    /*------------------------------------------*/
+    public boolean shouldDetect() {
+        framesSinceDetection++;
+        if (detectionRequested || framesSinceDetection >= interval) {
+            detectionRequested = false;
+            framesSinceDetection = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // next frame is detected (e.g. boxes lost by optical flow)
+    public void requestDetection() {
+        detectionRequested = true;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public int getInterval() {
+        return interval;
+    }
+
+    public float getFrameIntervalMs() {
+        return frameIntervalMs;
+    }
+
+    public float getDetectionLatencyMs() {
+        return detectionLatencyMs;
+    }
+}
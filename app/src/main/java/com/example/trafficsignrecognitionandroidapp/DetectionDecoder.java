@@ -0,0 +1,262 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+public class DetectionDecoder {
+
+    // result layout (struct of arrays): [scores | x | y | w | h], each maxDetections long
+    public static final int SCORE = 0;
+    public static final int X = 1;
+    public static final int Y = 2;
+    public static final int W = 3;
+    public static final int H = 4;
+    public static final int FIELDS = 5;
+
+    // YOLO row layout: x, y, w, h, objectness, class scores...
+    private static final int OBJECTNESS = 4;
+    private static final int FIRST_CLASS = 5;
+
+    // data members
+    private final int maxDetections;
+    private float threshold;
+    private int count;
+
+    // bounded min-heap (root = weakest kept candidate)
+    private final float[] heapScores;
+    private final int[] heapRows;
+
+    // decoded results, best first
+    private final float[] result;
+
+    /*------------------------------*/
+    /* DetectionDecoder constructor */
+    /*------------------------------*/
+    public DetectionDecoder(int maxDetections, float threshold) {
+        this.maxDetections = maxDetections;
+        this.threshold = threshold;
+        heapScores = new float[maxDetections];
+        heapRows = new int[maxDetections];
+        result = new float[FIELDS * maxDetections];
+    }
+
+    /*---------------------------------------------------*/
+    /* Keep best K rows over threshold in a single pass  */
+    /*---------------------------------------------------*/
+    public int decode(FloatBuffer output, int rowLength) {
+        count = 0;
+        int rows = output.limit() / rowLength;
+
+        // absolute reads on flat [rows * rowLength] output, no row objects
+        for (int j = 0, base = 0; j < rows; j++, base += rowLength) {
+            // class scores are <= 1 -> objectness alone can reject the row
+            float objectness = output.get(base + OBJECTNESS);
+            if (objectness < threshold) {
+                continue;
+            }
+
+            // score = objectness * best class score
+            float score = objectness * bestClassScore(output, base, rowLength);
+            if (score < threshold) {
+                continue;
+            }
+
+            offer(score, j);
+        }
+
+        // heap -> result, sorted by score descending
+        for (int i = count - 1; i >= 0; i--) {
+            int base = heapRows[0] * rowLength;
+            result[SCORE * maxDetections + i] = heapScores[0];
+            result[X * maxDetections + i] = output.get(base);
+            result[Y * maxDetections + i] = output.get(base + 1);
+            result[W * maxDetections + i] = output.get(base + 2);
+            result[H * maxDetections + i] = output.get(base + 3);
+            poll(i + 1);
+        }
+
+        return count;
+    }
+
+    /*------------------------------------------------------------*/
+    /* Quantized output: compare raw bytes, dequantize kept rows  */
+    /*------------------------------------------------------------*/
+    public int decode(ByteBuffer output, int rowLength, Quantization quantization) {
+        count = 0;
+        int rows = output.limit() / rowLength;
+        int minObjectness = quantization.rawAtLeast(threshold);
+
+        for (int j = 0, base = 0; j < rows; j++, base += rowLength) {
+            // threshold in quantized domain -> most rows rejected by one byte compare
+            int objectness = quantization.raw(output.get(base + OBJECTNESS));
+            if (objectness < minObjectness) {
+                continue;
+            }
+
+            // scale > 0 -> largest raw class value is largest class score
+            float score = quantization.dequantize(objectness);
+            if (rowLength > FIRST_CLASS) {
+                int best = quantization.raw(output.get(base + FIRST_CLASS));
+                for (int c = FIRST_CLASS + 1; c < rowLength; c++) {
+                    best = Math.max(best, quantization.raw(output.get(base + c)));
+                }
+                score *= quantization.dequantize(best);
+            }
+            if (score < threshold) {
+                continue;
+            }
+
+            offer(score, j);
+        }
+
+        // heap -> result, only kept boxes dequantized
+        for (int i = count - 1; i >= 0; i--) {
+            int base = heapRows[0] * rowLength;
+            result[SCORE * maxDetections + i] = heapScores[0];
+            result[X * maxDetections + i] = quantization.dequantize(output, base);
+            result[Y * maxDetections + i] = quantization.dequantize(output, base + 1);
+            result[W * maxDetections + i] = quantization.dequantize(output, base + 2);
+            result[H * maxDetections + i] = quantization.dequantize(output, base + 3);
+            poll(i + 1);
+        }
+
+        return count;
+    }
+
+    /*------------------------------------------*/
+    /* Jagged rows (tests & recorded fixtures)  */
+    /*------------------------------------------*/
+    public int decode(float[][] detection) {
+        int rowLength = detection.length == 0 ? FIRST_CLASS : detection[0].length;
+        FloatBuffer output = FloatBuffer.allocate(detection.length * rowLength);
+        for (float[] row : detection) {
+            output.put(row);
+        }
+        output.flip();
+        return decode(output, rowLength);
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public int getCount() {
+        return count;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    public float[] getResult() {
+        return result;
+    }
+
+    public float get(int field, int i) {
+        return result[field * maxDetections + i];
+    }
+
+    public void setThreshold(float threshold) {
+        this.threshold = threshold;
+    }
+
+    /*-------------------------------------------*/
+    /* Recognition output -> first largest index */
+    /*-------------------------------------------*/
+    public static int argMax(FloatBuffer output, int offset, int length) {
+        int predClass = 0;
+        float best = output.get(offset);
+        for (int i = 1; i < length; i++) {
+            float value = output.get(offset + i);
+            if (value > best) {
+                best = value;
+                predClass = i;
+            }
+        }
+
+        return predClass;
+    }
+
+    // quantized recognition output, raw values keep order of real ones
+    public static int argMax(ByteBuffer output, int offset, int length, Quantization quantization) {
+        int predClass = 0;
+        int best = quantization.raw(output.get(offset));
+        for (int i = 1; i < length; i++) {
+            int value = quantization.raw(output.get(offset + i));
+            if (value > best) {
+                best = value;
+                predClass = i;
+            }
+        }
+
+        return predClass;
+    }
+
+    private float bestClassScore(FloatBuffer output, int base, int rowLength) {
+        // objectness only model
+        if (rowLength <= FIRST_CLASS) {
+            return 1;
+        }
+
+        float best = output.get(base + FIRST_CLASS);
+        for (int c = FIRST_CLASS + 1; c < rowLength; c++) {
+            float value = output.get(base + c);
+            if (value > best) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    /*------------------------------*/
+    /* Bounded heap operations      */
+    /*------------------------------*/
+    private void offer(float score, int row) {
+        if (count < maxDetections) {
+            // sift up new leaf
+            int i = count++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (heapScores[parent] <= score) {
+                    break;
+                }
+                heapScores[i] = heapScores[parent];
+                heapRows[i] = heapRows[parent];
+                i = parent;
+            }
+            heapScores[i] = score;
+            heapRows[i] = row;
+        }
+        else if (score > heapScores[0]) {
+            // replace weakest candidate
+            siftDown(score, row, count);
+        }
+    }
+
+    private void poll(int size) {
+        // move last leaf to root and restore heap
+        int last = size - 1;
+        if (last > 0) {
+            siftDown(heapScores[last], heapRows[last], last);
+        }
+    }
+
+    private void siftDown(float score, int row, int size) {
+        int i = 0;
+        int half = size >> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heapScores[right] < heapScores[child]) {
+                child = right;
+            }
+            if (score <= heapScores[child]) {
+                break;
+            }
+            heapScores[i] = heapScores[child];
+            heapRows[i] = heapRows[child];
+            i = child;
+        }
+        heapScores[i] = score;
+        heapRows[i] = row;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+public class DetectionOverlayView extends View {
+
+    private String TAG = "DetectionOverlayView";
+
+    // same colors as boxes drawn in frame (OverlayRenderer)
+    private static final int BOX_COLOR = Color.rgb(250, 153, 28);
+    private static final int TEXT_COLOR = Color.rgb(28, 118, 143);
+
+    // labels and confidence threshold of model
+    private OverlayRenderer overlayRenderer;
+    private final Paint boxPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float lineHeight;
+
+    // latest boxes from camera thread, boxes being drawn on UI thread (swapped under lock)
+    private final Object lock = new Object();
+    private DetectionBatch pending;
+    private DetectionBatch shown;
+    private boolean changed = false;
+
+    // boxes (frame rotated 90 clockwise) -> view, same placement as camera view draws frame
+    private final FrameTransform detectionToView = new FrameTransform();
+
+    /*-----------------------------------*/
+    /* DetectionOverlayView constructors */
+    /*-----------------------------------*/
+    public DetectionOverlayView(Context context) {
+        this(context, null);
+    }
+
+    public DetectionOverlayView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        boxPaint.setColor(BOX_COLOR);
+        boxPaint.setStyle(Paint.Style.STROKE);
+        boxPaint.setStrokeWidth(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 2, getResources().getDisplayMetrics()));
+
+        textPaint.setColor(TEXT_COLOR);
+        textPaint.setFakeBoldText(true);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, getResources().getDisplayMetrics()));
+        lineHeight = textPaint.getFontSpacing();
+    }
+
+    public void setOverlayRenderer(OverlayRenderer overlayRenderer) {
+        this.overlayRenderer = overlayRenderer;
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+
+        // portrait: camera view draws frame rotated 90 clockwise over whole view, landscape: frame as it is
+        if (height > width) {
+            detectionToView.setIdentity();
+        }
+        else {
+            detectionToView.setRotatedClockwise();
+        }
+    }
+
+    /*---------------------------------------------*/
+    /* New boxes (any thread), redraw only if new  */
+    /*---------------------------------------------*/
+    // batch is copied, caller keeps ownership; null -> no boxes
+    public void setDetections(DetectionBatch batch) {
+        synchronized (lock) {
+            if (batch == null) {
+                if (pending == null || pending.getCount() == 0) {
+                    return;
+                }
+                pending.clear();
+            }
+            else {
+                if (pending == null || pending.getCapacity() < batch.getCapacity()) {
+                    pending = new DetectionBatch(batch.getCapacity());
+                    shown = new DetectionBatch(batch.getCapacity());
+                }
+                else if (sameBoxes(pending, batch)) {
+                    return;
+                }
+                pending.copyFrom(batch);
+            }
+            changed = true;
+        }
+        postInvalidateOnAnimation();
+    }
+
+    private static boolean sameBoxes(DetectionBatch a, DetectionBatch b) {
+        if (a.getCount() != b.getCount()) {
+            return false;
+        }
+        for (int i = 0; i < a.getCount(); i++) {
+            if (a.x[i] != b.x[i] || a.y[i] != b.y[i] || a.w[i] != b.w[i] || a.h[i] != b.h[i]
+                    || a.classId[i] != b.classId[i] || a.classScore[i] != b.classScore[i]
+                    || a.detectionScore[i] != b.detectionScore[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*------------------------------*/
+    /* Draw boxes and labels        */
+    /*------------------------------*/
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        synchronized (lock) {
+            if (shown == null) {
+                return;
+            }
+            if (changed) {
+                shown.copyFrom(pending);
+                changed = false;
+            }
+        }
+        if (overlayRenderer == null) {
+            return;
+        }
+
+        int viewWidth = getWidth();
+        int viewHeight = getHeight();
+        float x, y, w, h, left, top;
+        for (int i = 0; i < shown.getCount(); i++) {
+            if (!overlayRenderer.isDisplayed(shown, i)) {
+                continue;
+            }
+            x = detectionToView.mapX(shown.x[i], shown.y[i]);
+            y = detectionToView.mapY(shown.x[i], shown.y[i]);
+            w = detectionToView.mapW(shown.w[i], shown.h[i]);
+            h = detectionToView.mapH(shown.w[i], shown.h[i]);
+            left = (x - w / 2) * viewWidth;
+            top = (y - h / 2) * viewHeight;
+
+            canvas.drawRect(left, top, left + w * viewWidth, top + h * viewHeight, boxPaint);
+
+            // class and accuracy above box
+            canvas.drawText(overlayRenderer.getClassText(shown.classId[i]), left, top - lineHeight - 4, textPaint);
+            canvas.drawText(OverlayRenderer.getAccuracyText(shown.classScore[i]), left, top - 4, textPaint);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+public class FrameTransform {
+
+    // normalized box coordinates: target = offset + source * scale (sizes only scaled)
+    // swap -> target x comes from source y and target y from source x (quarter turns), negative scale -> mirror
+    private float offsetX = 0;
+    private float offsetY = 0;
+    private float scaleX = 1;
+    private float scaleY = 1;
+    private boolean swap = false;
+
+    /*------------------------------*/
+    /* Setters                      */
+    /*------------------------------*/
+    public FrameTransform setIdentity() {
+        return set(0, 0, 1, 1);
+    }
+
+    public FrameTransform set(float offsetX, float offsetY, float scaleX, float scaleY) {
+        return set(offsetX, offsetY, scaleX, scaleY, false);
+    }
+
+    private FrameTransform set(float offsetX, float offsetY, float scaleX, float scaleY, boolean swap) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.swap = swap;
+        return this;
+    }
+
+    public FrameTransform set(FrameTransform transform) {
+        return set(transform.offsetX, transform.offsetY, transform.scaleX, transform.scaleY, transform.swap);
+    }
+
+    // source is a region of target (normalized x, y, w, h of region in target)
+    public FrameTransform setRegion(float x, float y, float w, float h) {
+        return set(x, y, w, h);
+    }
+
+    // source is padded content (normalized offset and size of content in source) -> target is content
+    public FrameTransform setLetterbox(float contentX, float contentY, float contentW, float contentH) {
+        return set(-contentX / contentW, -contentY / contentH, 1 / contentW, 1 / contentH);
+    }
+
+    // source is target rotated 90 clockwise (portrait detection input of landscape camera frame)
+    public FrameTransform setRotatedClockwise() {
+        return set(0, 1, 1, -1, true);
+    }
+
+    // target mirrored horizontally afterwards (front camera)
+    public FrameTransform mirror() {
+        return set(1 - offsetX, offsetY, -scaleX, scaleY, swap);
+    }
+
+    // target -> source
+    public FrameTransform invert() {
+        if (swap) {
+            return set(-offsetY / scaleY, -offsetX / scaleX, 1 / scaleY, 1 / scaleX, true);
+        }
+        return set(-offsetX / scaleX, -offsetY / scaleY, 1 / scaleX, 1 / scaleY, false);
+    }
+
+    // apply inner first, then this one
+    public FrameTransform concat(FrameTransform inner) {
+        float innerX = swap ? inner.offsetY : inner.offsetX;
+        float innerY = swap ? inner.offsetX : inner.offsetY;
+        float innerScaleX = swap ? inner.scaleY : inner.scaleX;
+        float innerScaleY = swap ? inner.scaleX : inner.scaleY;
+        return set(offsetX + innerX * scaleX, offsetY + innerY * scaleY,
+                innerScaleX * scaleX, innerScaleY * scaleY, swap != inner.swap);
+    }
+
+    /*------------------------------*/
+    /* Mapping                      */
+    /*------------------------------*/
+    // box centre (x, y) and size (w, h), valid for all transforms
+    public float mapX(float x, float y) {
+        return offsetX + (swap ? y : x) * scaleX;
+    }
+
+    public float mapY(float x, float y) {
+        return offsetY + (swap ? x : y) * scaleY;
+    }
+
+    public float mapW(float w, float h) {
+        return (swap ? h : w) * Math.abs(scaleX);
+    }
+
+    public float mapH(float w, float h) {
+        return (swap ? w : h) * Math.abs(scaleY);
+    }
+
+    // single axis, transforms without quarter turn only (letterbox, region)
+    public float mapX(float x) {
+        return offsetX + x * scaleX;
+    }
+
+    public float mapY(float y) {
+        return offsetY + y * scaleY;
+    }
+
+    public float mapW(float w) {
+        return w * Math.abs(scaleX);
+    }
+
+    public float mapH(float h) {
+        return h * Math.abs(scaleY);
+    }
+
+    public boolean isIdentity() {
+        return offsetX == 0 && offsetY == 0 && scaleX == 1 && scaleY == 1 && !swap;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    public boolean isSwapped() {
+        return swap;
+    }
+}
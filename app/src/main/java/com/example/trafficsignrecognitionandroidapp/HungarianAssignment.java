@@ -0,0 +1,123 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.util.Arrays;
+
+public class HungarianAssignment {
+
+    // data members
+    private final int capacity;
+    private final float[] cost;
+
+    // work arrays (1-indexed, square padded problem), reused between calls
+    private final double[] u, v, minV;
+    private final int[] p, way;
+    private final boolean[] used;
+
+    // output: column of each row, -1 if not assigned
+    private final int[] assignment;
+
+    /*---------------------------------*/
+    /* HungarianAssignment constructor */
+    /*---------------------------------*/
+    public HungarianAssignment(int capacity) {
+        this.capacity = capacity;
+        cost = new float[capacity * capacity];
+        u = new double[capacity + 1];
+        v = new double[capacity + 1];
+        minV = new double[capacity + 1];
+        p = new int[capacity + 1];
+        way = new int[capacity + 1];
+        used = new boolean[capacity + 1];
+        assignment = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCost(int row, int col, float value) {
+        cost[row * capacity + col] = value;
+    }
+
+    /*------------------------------------------------------*/
+    /* Minimum total cost assignment of rows x cols matrix  */
+    /*------------------------------------------------------*/
+    public int solve(int rows, int cols) {
+        // square problem, dummy rows / cols cost 0
+        int n = Math.max(rows, cols);
+        Arrays.fill(u, 0, n + 1, 0);
+        Arrays.fill(v, 0, n + 1, 0);
+        Arrays.fill(p, 0, n + 1, 0);
+        Arrays.fill(way, 0, n + 1, 0);
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minV, 0, n + 1, Double.MAX_VALUE);
+            Arrays.fill(used, 0, n + 1, false);
+
+            // grow alternating path until a free column is reached
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (!used[j]) {
+                        double current = cost(i0 - 1, j - 1, rows, cols) - u[i0] - v[j];
+                        if (current < minV[j]) {
+                            minV[j] = current;
+                            way[j] = j0;
+                        }
+                        if (minV[j] < delta) {
+                            delta = minV[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    }
+                    else {
+                        minV[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            // flip path
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        // keep only real rows / cols
+        int assigned = 0;
+        Arrays.fill(assignment, 0, rows, -1);
+        for (int j = 1; j <= n; j++) {
+            int row = p[j] - 1;
+            if (row >= 0 && row < rows && j - 1 < cols) {
+                assignment[row] = j - 1;
+                assigned++;
+            }
+        }
+
+        return assigned;
+    }
+
+    // column assigned to row, -1 if none
+    public int getAssignment(int row) {
+        return assignment[row];
+    }
+
+    private float cost(int row, int col, int rows, int cols) {
+        if (row >= rows || col >= cols) {
+            return 0;
+        }
+        return cost[row * capacity + col];
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+
+public interface InferenceEngine {
+
+    // runtimes a model can be executed with (chosen for each model in ModelConfig)
+    enum Backend {
+        TFLITE,
+        OPENCV_DNN
+    }
+
+    // new engine over same model, for workers that each need their own
+    interface Factory {
+        InferenceEngine create(int threads);
+    }
+
+    /*------------------------------*/
+    /* Description                  */
+    /*------------------------------*/
+    // image input as [batch, height, width, channels], output as produced by model
+    int[] getInputShape();
+
+    int[] getOutputShape();
+
+    // int8 / uint8 tensors, null for float tensors
+    Quantization getInputQuantization();
+
+    Quantization getOutputQuantization();
+
+    /*------------------------------*/
+    /* Execution                    */
+    /*------------------------------*/
+    // batch dimension of model is dynamic -> resizeInput can change it
+    boolean supportsBatchResize();
+
+    // new input shape (batch dimension), output batch follows
+    void resizeInput(int[] shape);
+
+    // one inference, input and output buffers bound by caller and reused across runs
+    void run(ByteBuffer input, ByteBuffer output);
+
+    void close();
+
+    /*------------------------------*/
+    /* Buffer sizes                 */
+    /*------------------------------*/
+    default int getInputBytes() {
+        return numBytes(getInputShape(), getInputQuantization());
+    }
+
+    default int getOutputBytes() {
+        return numBytes(getOutputShape(), getOutputQuantization());
+    }
+
+    static int numBytes(int[] shape, Quantization quantization) {
+        int elements = 1;
+        for (int dimension : shape) {
+            elements *= dimension;
+        }
+        return elements * (quantization != null ? 1 : 4);
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.util.Log;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class InferenceScheduler {
+    private String TAG = "InferenceScheduler";
+
+    // number of frames in flight between preprocessing and inference (ping-pong)
+    private static final int SLOTS = 2;
+
+    public interface Listener {
+        // called on inference thread after a new batch is published
+        void onDetectionPublished();
+    }
+
+    // engine & results
+    private final SignRecognition signRecognition;
+    private final DetectionBatchPool detectionBatchPool;
+    private final AtomicReference<DetectionBatch> published = new AtomicReference<>();
+    private Listener listener;
+
+    // tracking across frames (inference thread only)
+    private boolean tracking = true;
+    private SignTracker signTracker;
+    private SignTracker.Listener trackListener;
+
+    // colour / shape proposals: detection on candidate region only, empty frames skipped (preprocess thread only)
+    private boolean regionProposals = false;
+    private RegionProposer regionProposer;
+
+    // camera YUV converted straight into model input (no RGBA snapshot, rotation or resize)
+    private boolean yuvInput = true;
+
+    // mailbox: latest camera snapshot, overwritten while not taken (latest frame wins)
+    private final Object mailboxLock = new Object();
+    private Mat pendingFrame;
+    private Mat workingFrame;
+    private boolean hasPendingFrame = false;
+    private long pendingFrameId;
+    private long workingFrameId;
+    private long nextFrameId = 0;
+    private int droppedFrameCount = 0;
+
+    // YUV snapshots (same mailbox, pending frame is either RGBA or YUV)
+    private byte[] pendingYuv = new byte[0];
+    private byte[] workingYuv = new byte[0];
+    private boolean pendingIsYuv;
+    private boolean workingIsYuv;
+    private int pendingWidth, pendingHeight, workingWidth, workingHeight;
+    private boolean pendingNv21, workingNv21;
+
+    // prepared model inputs passed between stages
+    private final BlockingQueue<FrameSlot> freeSlots = new ArrayBlockingQueue<>(SLOTS);
+    private final BlockingQueue<FrameSlot> readySlots = new ArrayBlockingQueue<>(SLOTS);
+    private final FrameSlot[] slots = new FrameSlot[SLOTS];
+
+    // stage threads
+    private Thread preprocessThread;
+    private Thread inferenceThread;
+    private volatile boolean running = false;
+
+    /*----------------------------------*/
+    /* InferenceScheduler constructor   */
+    /*----------------------------------*/
+    InferenceScheduler(SignRecognition signRecognition) {
+        this.signRecognition = signRecognition;
+        this.detectionBatchPool = signRecognition.getDetectionBatchPool();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // trackListener called on inference thread, once for each physical sign
+    public void setTracking(boolean tracking, SignTracker.Listener trackListener) {
+        this.tracking = tracking;
+        this.trackListener = trackListener;
+    }
+
+    public void setRegionProposals(boolean regionProposals) {
+        this.regionProposals = regionProposals;
+    }
+
+    public void setYuvInput(boolean yuvInput) {
+        this.yuvInput = yuvInput;
+    }
+
+    // proposals run on RGBA frames -> YUV snapshots only without them
+    public boolean acceptsYuv() {
+        return running && yuvInput && !regionProposals;
+    }
+
+    /*------------------------------*/
+    /* Start stage threads          */
+    /*------------------------------*/
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        // buffers allocated once for whole camera session
+        pendingFrame = new Mat();
+        workingFrame = new Mat();
+        hasPendingFrame = false;
+        freeSlots.clear();
+        readySlots.clear();
+        for (int s = 0; s < SLOTS; s++) {
+            slots[s] = new FrameSlot(signRecognition.createFramePreprocessor(s));
+            freeSlots.add(slots[s]);
+        }
+
+        // tracks live for one camera session, kalman filters need OpenCV loaded
+        if (tracking) {
+            int capacity = detectionBatchPool.getCapacity();
+            signTracker = new SignTracker(2 * capacity, capacity);
+            signTracker.setListener(trackListener);
+        }
+        if (regionProposals) {
+            regionProposer = new RegionProposer();
+        }
+
+        preprocessThread = new Thread(this::preprocessLoop, "InferencePreprocess");
+        inferenceThread = new Thread(this::inferenceLoop, "InferenceDetection");
+        preprocessThread.start();
+        inferenceThread.start();
+    }
+
+    /*------------------------------------------*/
+    /* Stop threads, release native buffers     */
+    /*------------------------------------------*/
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        preprocessThread.interrupt();
+        inferenceThread.interrupt();
+        try {
+            preprocessThread.join();
+            inferenceThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // drop result not yet drawn
+        DetectionBatch batch = published.getAndSet(null);
+        if (batch != null) {
+            batch.recycle();
+        }
+
+        synchronized (mailboxLock) {
+            pendingFrame.release();
+            workingFrame.release();
+            pendingYuv = new byte[0];
+            workingYuv = new byte[0];
+        }
+        for (FrameSlot slot : slots) {
+            slot.release();
+        }
+        if (signTracker != null) {
+            signTracker.release();
+            signTracker = null;
+        }
+        if (regionProposer != null) {
+            regionProposer.release();
+            regionProposer = null;
+        }
+        signRecognition.clearRecognitionCache();
+    }
+
+    /*---------------------------------------------------------*/
+    /* Camera thread: snapshot frame now, replace pending one  */
+    /*---------------------------------------------------------*/
+    public long submit(Mat rgba) {
+        if (!running || rgba == null || rgba.empty()) {
+            return -1;
+        }
+
+        synchronized (mailboxLock) {
+            if (hasPendingFrame) {
+                droppedFrameCount++;
+            }
+
+            // copy before camera worker swaps its buffer, reallocates only if size changes
+            long startTime = LatencyMetrics.now();
+            rgba.copyTo(pendingFrame);
+            LatencyMetrics.record(LatencyMetrics.Stage.FRAME_ACQUIRE, startTime);
+            pendingIsYuv = false;
+            hasPendingFrame = true;
+            pendingFrameId = nextFrameId++;
+            mailboxLock.notify();
+            return pendingFrameId;
+        }
+    }
+
+    /*-------------------------------------------------------------*/
+    /* Camera thread: snapshot YUV buffer (NV21 or YV12) instead   */
+    /*-------------------------------------------------------------*/
+    public long submitYuv(Mat yuv, int width, int height, boolean nv21) {
+        if (!running || yuv == null || yuv.empty()) {
+            return -1;
+        }
+
+        synchronized (mailboxLock) {
+            if (hasPendingFrame) {
+                droppedFrameCount++;
+            }
+
+            // 1.5 bytes for each pixel instead of 4, reallocated only if size changes
+            long startTime = LatencyMetrics.now();
+            int length = (int) (yuv.total() * yuv.channels());
+            if (pendingYuv.length != length) {
+                pendingYuv = new byte[length];
+            }
+            yuv.get(0, 0, pendingYuv);
+            LatencyMetrics.record(LatencyMetrics.Stage.FRAME_ACQUIRE, startTime);
+            pendingIsYuv = true;
+            pendingWidth = width;
+            pendingHeight = height;
+            pendingNv21 = nv21;
+            hasPendingFrame = true;
+            pendingFrameId = nextFrameId++;
+            mailboxLock.notify();
+            return pendingFrameId;
+        }
+    }
+
+    /*------------------------------------------*/
+    /* Newest result, null if nothing new       */
+    /*------------------------------------------*/
+    public DetectionBatch poll() {
+        return published.getAndSet(null);
+    }
+
+    public int getDroppedFrameCount() {
+        synchronized (mailboxLock) {
+            return droppedFrameCount;
+        }
+    }
+
+    /*------------------------------------------*/
+    /* Stage 1: snapshot -> model input         */
+    /*------------------------------------------*/
+    private void preprocessLoop() {
+        try {
+            while (running) {
+                Mat frame = takeFrame();
+                FrameSlot slot = freeSlots.take();
+                slot.frameId = workingFrameId;
+
+                // YUV snapshot -> whole frame straight into model input
+                if (workingIsYuv) {
+                    slot.proposal = RegionProposer.FULL_FRAME;
+                    signRecognition.preprocessFrame(workingYuv, workingWidth, workingHeight, workingNv21, slot.preprocessor);
+                    readySlots.put(slot);
+                    continue;
+                }
+
+                // whole frame, candidate region only, or nothing to detect
+                slot.proposal = regionProposer != null ? regionProposer.propose(frame) : RegionProposer.FULL_FRAME;
+                if (slot.proposal == RegionProposer.REGION) {
+                    Rect rect = regionProposer.getRegion();
+                    RegionProposer.toRotatedRegion(rect, frame.cols(), frame.rows(), slot.region);
+                    Mat roi = frame.submat(rect);
+                    signRecognition.preprocessFrame(roi, slot.rotated, slot.preprocessor);
+                    roi.release();
+                }
+                else if (slot.proposal == RegionProposer.FULL_FRAME) {
+                    signRecognition.preprocessFrame(frame, slot.rotated, slot.preprocessor);
+                }
+                readySlots.put(slot);
+            }
+        }
+        catch (InterruptedException e) {
+            Log.d(TAG, "preprocessLoop: stopped");
+        }
+    }
+
+    private Mat takeFrame() throws InterruptedException {
+        synchronized (mailboxLock) {
+            while (!hasPendingFrame) {
+                mailboxLock.wait();
+            }
+
+            // swap -> camera writes next snapshot while this one is processed
+            Mat frame = pendingFrame;
+            pendingFrame = workingFrame;
+            workingFrame = frame;
+            byte[] yuv = pendingYuv;
+            pendingYuv = workingYuv;
+            workingYuv = yuv;
+            workingIsYuv = pendingIsYuv;
+            workingWidth = pendingWidth;
+            workingHeight = pendingHeight;
+            workingNv21 = pendingNv21;
+            workingFrameId = pendingFrameId;
+            hasPendingFrame = false;
+            return frame;
+        }
+    }
+
+    /*------------------------------------------*/
+    /* Stage 2: model input -> published batch  */
+    /*------------------------------------------*/
+    private void inferenceLoop() {
+        try {
+            while (running) {
+                FrameSlot slot = readySlots.take();
+                DetectionBatch batch = detectionBatchPool.acquire();
+                if (slot.proposal != RegionProposer.SKIP) {
+                    signRecognition.inferFrame(slot.preprocessor, slot.proposal == RegionProposer.REGION ? slot.region : null, batch);
+                }
+                batch.frameId = slot.frameId;
+                freeSlots.put(slot);
+
+                // stable id for each physical sign, tracked boxes published (coast through missed detections)
+                if (signTracker != null) {
+                    signTracker.update(batch);
+                    DetectionBatch tracked = signTracker.writeTracks(detectionBatchPool.acquire());
+                    tracked.frameId = batch.frameId;
+                    tracked.detectionLatency = batch.detectionLatency;
+                    tracked.recognitionLatency = batch.recognitionLatency;
+                    batch.recycle();
+                    batch = tracked;
+                }
+                publish(batch);
+            }
+        }
+        catch (InterruptedException e) {
+            Log.d(TAG, "inferenceLoop: stopped");
+        }
+    }
+
+    private void publish(DetectionBatch batch) {
+        // result never drawn -> back to pool
+        DetectionBatch old = published.getAndSet(batch);
+        if (old != null) {
+            old.recycle();
+        }
+
+        if (listener != null) {
+            listener.onDetectionPublished();
+        }
+    }
+
+    private static class FrameSlot {
+        private final MatPreprocessor preprocessor;
+        private final Mat rotated = new Mat();
+        private final FrameTransform region = new FrameTransform();
+        private int proposal;
+        private long frameId;
+
+        FrameSlot(MatPreprocessor preprocessor) {
+            this.preprocessor = preprocessor;
+        }
+
+        void release() {
+            preprocessor.release();
+            rotated.release();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class InterpreterTuner {
+    private String TAG = "InterpreterTuner";
+
+    // stored profiles, one for each model and device
+    private static final String PREFERENCES = "interpreter_profiles";
+
+    // calibration runs for each candidate
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 12;
+    private static final double PERCENTILE = 0.95;
+
+    // data members
+    private final SharedPreferences preferences;
+    private final String deviceFingerprint;
+    private final int cores;
+
+    /*------------------------------*/
+    /* InterpreterTuner constructor */
+    /*------------------------------*/
+    InterpreterTuner(Context context) {
+        preferences = context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        cores = Runtime.getRuntime().availableProcessors();
+        deviceFingerprint = Build.FINGERPRINT + "/" + Build.VERSION.SDK_INT + "/" + cores;
+    }
+
+    /*-----------------------------------------------------*/
+    /* Stored profile, or calibrate once and store it      */
+    /*-----------------------------------------------------*/
+    // fallback: configured options, used if no candidate runs
+    public Profile tune(String name, ByteBuffer model, Profile fallback) {
+        String key = name + "_" + checksum(model) + "_" + Integer.toHexString(deviceFingerprint.hashCode());
+        Profile stored = Profile.parse(preferences.getString(key, null));
+        if (stored != null) {
+            Log.d(TAG, "tune: Stored profile for " + name + ": " + stored);
+            return stored;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Profile best = calibrate(model);
+        if (best == null) {
+            return fallback;
+        }
+        preferences.edit().putString(key, best.toString()).apply();
+        Log.d(TAG, "tune: Calibrated " + name + " in " + (System.currentTimeMillis() - startTime) + " ms: " + best);
+        return best;
+    }
+
+    /*-----------------------------------------------------------*/
+    /* Threads first, then each option with best thread count    */
+    /*-----------------------------------------------------------*/
+    private Profile calibrate(ByteBuffer model) {
+        // thread counts up to number of cores
+        List<Integer> threads = new ArrayList<>();
+        for (int candidate : new int[] {1, 2, 4, cores}) {
+            if (candidate <= cores && !threads.contains(candidate)) {
+                threads.add(candidate);
+            }
+        }
+
+        Profile best = null;
+        long bestLatency = Long.MAX_VALUE;
+        for (int threadCount : threads) {
+            Profile candidate = new Profile(threadCount, true, false);
+            long latency = measure(model, candidate);
+            if (latency < bestLatency) {
+                best = candidate;
+                bestLatency = latency;
+            }
+        }
+
+        if (best == null) {
+            return null;
+        }
+
+        // XNNPACK off, FP16 relaxation (float models only) with best thread count
+        boolean floatModel = isFloatModel(model, best);
+        Profile[] options = {
+                new Profile(best.threads, false, false),
+                floatModel ? new Profile(best.threads, best.xnnpack, true) : null};
+        for (Profile candidate : options) {
+            if (candidate == null) {
+                continue;
+            }
+            long latency = measure(model, candidate);
+            if (latency < bestLatency) {
+                best = candidate;
+                bestLatency = latency;
+            }
+        }
+
+        return best;
+    }
+
+    // p95 of calibration runs on synthetic input, Long.MAX_VALUE if option not supported
+    private long measure(ByteBuffer model, Profile profile) {
+        Interpreter interpreter = null;
+        try {
+            interpreter = new Interpreter(model, profile.toOptions());
+            ByteBuffer input = syntheticInput(interpreter.getInputTensor(0));
+            ByteBuffer output = ByteBuffer.allocateDirect(interpreter.getOutputTensor(0).numBytes());
+            output.order(ByteOrder.nativeOrder());
+
+            long[] latencies = new long[MEASURED_RUNS];
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                input.rewind();
+                output.rewind();
+                long startTime = System.nanoTime();
+                interpreter.run(input, output);
+                if (run >= WARMUP_RUNS) {
+                    latencies[run - WARMUP_RUNS] = System.nanoTime() - startTime;
+                }
+            }
+            Arrays.sort(latencies);
+            long p95 = latencies[(int) Math.ceil(PERCENTILE * MEASURED_RUNS) - 1];
+            Log.d(TAG, "measure: " + profile + " p95 " + p95 / 1000 + " us");
+            return p95;
+        }
+        catch (RuntimeException e) {
+            Log.w(TAG, "measure: " + profile + " failed: " + e.getMessage());
+            return Long.MAX_VALUE;
+        }
+        finally {
+            if (interpreter != null) {
+                interpreter.close();
+            }
+        }
+    }
+
+    private boolean isFloatModel(ByteBuffer model, Profile profile) {
+        Interpreter interpreter = new Interpreter(model, profile.toOptions());
+        boolean floatModel = interpreter.getInputTensor(0).dataType() == DataType.FLOAT32;
+        interpreter.close();
+        return floatModel;
+    }
+
+    private static ByteBuffer syntheticInput(Tensor tensor) {
+        // random bytes are valid uint8 / int8 values, float input filled with [0, 1)
+        ByteBuffer input = ByteBuffer.allocateDirect(tensor.numBytes());
+        input.order(ByteOrder.nativeOrder());
+        Random random = new Random(42);
+        if (tensor.dataType() == DataType.FLOAT32) {
+            while (input.remaining() >= 4) {
+                input.putFloat(random.nextFloat());
+            }
+        }
+        else {
+            byte[] values = new byte[input.capacity()];
+            random.nextBytes(values);
+            input.put(values);
+        }
+        input.rewind();
+        return input;
+    }
+
+    /*------------------------------*/
+    /* Model checksum (CRC32)       */
+    /*------------------------------*/
+    static long checksum(ByteBuffer model) {
+        ByteBuffer view = model.duplicate();
+        view.rewind();
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[64 * 1024];
+        while (view.hasRemaining()) {
+            int length = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return crc.getValue();
+    }
+
+    public static class Profile {
+        // interpreter options
+        final int threads;
+        final boolean xnnpack;
+        final boolean fp16;
+
+        /*------------------------------*/
+        /* Profile constructor          */
+        /*------------------------------*/
+        Profile(int threads, boolean xnnpack, boolean fp16) {
+            this.threads = threads;
+            this.xnnpack = xnnpack;
+            this.fp16 = fp16;
+        }
+
+        public Interpreter.Options toOptions() {
+            Interpreter.Options options = new Interpreter.Options();
+            options.setNumThreads(threads);
+            options.setUseXNNPACK(xnnpack);
+            options.setAllowFp16PrecisionForFp32(fp16);
+            return options;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        // same delegate options, other thread count (engines sharing the cores)
+        public Profile withThreads(int threads) {
+            return new Profile(threads, xnnpack, fp16);
+        }
+
+        /*--------------------------------------*/
+        /* Stored form: threads:xnnpack:fp16    */
+        /*--------------------------------------*/
+        @Override
+        public String toString() {
+            return threads + ":" + (xnnpack ? 1 : 0) + ":" + (fp16 ? 1 : 0);
+        }
+
+        static Profile parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] fields = value.split(":");
+            if (fields.length != 3) {
+                return null;
+            }
+            try {
+                return new Profile(Integer.parseInt(fields[0]), "1".equals(fields[1]), "1".equals(fields[2]));
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
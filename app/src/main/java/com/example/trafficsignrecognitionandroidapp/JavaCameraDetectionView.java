@@ -2,7 +2,11 @@ package com.example.trafficsignrecognitionandroidapp;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ImageFormat;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.Typeface;
 import android.util.AttributeSet;
 import android.util.Log;
 
@@ -11,9 +15,7 @@ import org.opencv.android.JavaCameraView;
 import org.opencv.android.Utils;
 import org.opencv.core.Mat;
 
-import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -21,10 +23,24 @@ public class JavaCameraDetectionView extends JavaCameraView {
 
     private String TAG = "CameraBridgeDetectionView";
     private CompletableFuture<?> recognitionOutput;
-    private Map<Integer, Object> lastRecognition;
+    private DetectionBatch lastRecognition;
     private List<String> listOfResults = CameraActivity.listOfResults;
     private List<Integer> displayedSignClass = CameraActivity.displayedSignClass;
-    private Context context;
+    private OverlayRenderer overlayRenderer;
+    private DetectionOverlayView overlayView;
+    private InferenceScheduler inferenceScheduler;
+    private Paint latencyPaint;
+
+    // detect every N frames, boxes moved with optical flow in between
+    private DetectionCadence detectionCadence;
+    private BoxPropagator boxPropagator;
+    private int boxCapacity;
+    private long lastFrameTime = 0;
+    private long lastSubmitTime = 0;
+    private long lastSubmitId = -1;
+
+    // boxes are in frame rotated 90 clockwise (detection input) -> camera frame, for overlay and optical flow
+    private final FrameTransform detectionToFrame = new FrameTransform().setRotatedClockwise();
 
     public JavaCameraDetectionView(Context context, int cameraId) {
         super(context, cameraId);
@@ -32,18 +48,69 @@ public class JavaCameraDetectionView extends JavaCameraView {
 
     public JavaCameraDetectionView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        this.context = context;
+    }
+
+    public void setOverlayRenderer(OverlayRenderer overlayRenderer) {
+        this.overlayRenderer = overlayRenderer;
+    }
+
+    // boxes drawn by view over camera surface, frame displayed untouched
+    public void setOverlayView(DetectionOverlayView overlayView) {
+        this.overlayView = overlayView;
+    }
+
+    public void setInferenceScheduler(InferenceScheduler inferenceScheduler) {
+        this.inferenceScheduler = inferenceScheduler;
+    }
+
+    public void setDetectionCadence(DetectionCadence detectionCadence, int boxCapacity) {
+        this.detectionCadence = detectionCadence;
+        this.boxCapacity = boxCapacity;
+    }
+
+    @Override
+    protected void disconnectCamera() {
+        // camera thread stopped -> optical flow state and label patch can be released
+        super.disconnectCamera();
+        if (boxPropagator != null) {
+            boxPropagator.release();
+            boxPropagator = null;
+        }
+        if (overlayRenderer != null) {
+            overlayRenderer.release();
+        }
+        if (overlayView != null) {
+            overlayView.setDetections(null);
+        }
     }
 
     protected void deliverAndDrawFrame(CvCameraViewFrame frame) {
+        // camera NV21 -> RGBA conversion happens in rgba()
+        long startTime = LatencyMetrics.now();
         Mat modified = frame.rgba();
+        LatencyMetrics.record(LatencyMetrics.Stage.YUV_TO_RGBA, startTime);
 
         // check modified
         if(modified == null || modified.empty())
             return;
 
+        // scheduled recognition: snapshot frame before drawing on it, take newest result
+        DetectionBatch drawnRecognition = null;
+        if (inferenceScheduler != null && detectionCadence != null) {
+            drawnRecognition = detectEveryN(frame, modified);
+        }
+        else if (inferenceScheduler != null) {
+            submit(frame, modified);
+            DetectionBatch recognition = inferenceScheduler.poll();
+            if (recognition != null) {
+                if (lastRecognition != null) {
+                    lastRecognition.recycle();
+                }
+                lastRecognition = recognition;
+            }
+        }
         // async recognition
-        if (mListener != null) {
+        else if (mListener != null) {
             // get camera frame async
             if (recognitionOutput == null) {
                 recognitionOutput = mListener.onCameraFrameAsync(frame);
@@ -53,8 +120,12 @@ public class JavaCameraDetectionView extends JavaCameraView {
                 if (recognitionOutput.isDone()){
                     try {
                         Object recognition = recognitionOutput.get();
-                        if (recognition instanceof Map) {
-                            lastRecognition = (Map<Integer, Object>) recognition;
+                        if (recognition instanceof DetectionBatch) {
+                            // previous batch no longer drawn -> back to pool
+                            if (lastRecognition != null) {
+                                lastRecognition.recycle();
+                            }
+                            lastRecognition = (DetectionBatch) recognition;
                         } else {
                             throw new IllegalArgumentException();
                         }
@@ -65,23 +136,30 @@ public class JavaCameraDetectionView extends JavaCameraView {
                     recognitionOutput = null;
                 }
             }
+        }
 
-            // draw last prediction -> remove blinking effect
-            if (lastRecognition != null){
-                // draw box on current frame, not frame used for detection
-                try {
-                    SignRecognition signRecognition = new SignRecognition(context.getAssets());
-                    signRecognition.drawBoxes(lastRecognition, modified, listOfResults, displayedSignClass, true, mFpsMeter.mStrfps);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+        // draw last prediction -> remove blinking effect
+        if (drawnRecognition == null) {
+            drawnRecognition = lastRecognition;
+        }
+        if (drawnRecognition != null && overlayRenderer != null && overlayView != null) {
+            // results only, boxes redrawn by overlay view when they change
+            startTime = LatencyMetrics.now();
+            overlayRenderer.collectResults(drawnRecognition, listOfResults, displayedSignClass, true, mFpsMeter.mStrfps);
+            overlayView.setDetections(drawnRecognition);
+            LatencyMetrics.record(LatencyMetrics.Stage.OVERLAY, startTime);
+        }
+        else if (drawnRecognition != null && overlayRenderer != null){
+            // draw box on current frame, not frame used for detection
+            overlayRenderer.drawBoxes(drawnRecognition, modified, listOfResults, displayedSignClass, true, detectionToFrame, mFpsMeter.mStrfps);
         }
 
         boolean bmpValid = true;
         if (modified != null && !modified.empty() && (modified.cols() == mCacheBitmap.getWidth()) && (modified.rows() == mCacheBitmap.getHeight())) {
             try {
+                startTime = LatencyMetrics.now();
                 Utils.matToBitmap(modified, mCacheBitmap);
+                LatencyMetrics.record(LatencyMetrics.Stage.MAT_TO_BITMAP, startTime);
                 // release memory
                 modified.release();
             }
@@ -97,6 +175,7 @@ public class JavaCameraDetectionView extends JavaCameraView {
         }
 
         if (bmpValid && mCacheBitmap != null) {
+            startTime = LatencyMetrics.now();
             Canvas canvas = getHolder().lockCanvas();
 
             // camera preview portrait mode
@@ -132,8 +211,98 @@ public class JavaCameraDetectionView extends JavaCameraView {
                     mFpsMeter.measure();
                     mFpsMeter.draw(canvas, 20, 30);
                 }
+
+                // per stage p50 / p95 / p99 (debug)
+                if (LatencyMetrics.isOverlayEnabled()) {
+                    drawLatencyMetrics(canvas, 20, 60);
+                }
                 getHolder().unlockCanvasAndPost(canvas);
+                LatencyMetrics.record(LatencyMetrics.Stage.CANVAS_POST, startTime);
             }
         }
     }
+
+    /*----------------------------------------------------------*/
+    /* Detection on every Nth frame, Lucas-Kanade on the others */
+    /*----------------------------------------------------------*/
+    private DetectionBatch detectEveryN(CvCameraViewFrame frame, Mat modified) {
+        if (boxPropagator == null) {
+            boxPropagator = new BoxPropagator(boxCapacity);
+            boxPropagator.setFrameTransform(detectionToFrame);
+        }
+
+        // camera frame interval
+        long now = System.nanoTime();
+        if (lastFrameTime != 0) {
+            detectionCadence.recordFrameInterval((now - lastFrameTime) / 1e6F);
+        }
+        lastFrameTime = now;
+
+        // Y plane of camera frame, no conversion
+        Mat gray = frame.gray();
+
+        // send frame to model only on cadence
+        if (detectionCadence.shouldDetect()) {
+            long frameId = submit(frame, modified);
+            boxPropagator.snapshot(frameId, gray);
+            lastSubmitId = frameId;
+            lastSubmitTime = now;
+        }
+
+        // new boxes -> reseed keypoints, otherwise carry boxes forward
+        DetectionBatch recognition = inferenceScheduler.poll();
+        DetectionBatch boxes;
+        if (recognition != null) {
+            if (recognition.frameId == lastSubmitId) {
+                detectionCadence.recordDetectionLatency((now - lastSubmitTime) / 1e6F);
+            }
+            boxes = boxPropagator.reset(recognition, gray);
+            if (lastRecognition != null) {
+                lastRecognition.recycle();
+            }
+            lastRecognition = recognition;
+        }
+        else {
+            boxes = boxPropagator.propagate(gray);
+        }
+
+        // all keypoints lost -> detect again on next frame
+        if (boxes.getCount() > 0 && boxPropagator.getPointCount() == 0) {
+            detectionCadence.requestDetection();
+        }
+
+        gray.release();
+        return boxes;
+    }
+
+    /*------------------------------------------------*/
+    /* Camera YUV to scheduler when it takes it       */
+    /*------------------------------------------------*/
+    private long submit(CvCameraViewFrame frame, Mat modified) {
+        if (frame instanceof CvCameraViewYuvFrame && inferenceScheduler.acceptsYuv()) {
+            CvCameraViewYuvFrame yuvFrame = (CvCameraViewYuvFrame) frame;
+            int format = yuvFrame.yuvFormat();
+            if (format == ImageFormat.NV21 || format == ImageFormat.YV12) {
+                return inferenceScheduler.submitYuv(yuvFrame.yuv(), yuvFrame.width(), yuvFrame.height(), format == ImageFormat.NV21);
+            }
+        }
+        return inferenceScheduler.submit(modified);
+    }
+
+    /*------------------------------------------*/
+    /* Debug overlay with latency percentiles   */
+    /*------------------------------------------*/
+    private void drawLatencyMetrics(Canvas canvas, float offsetX, float offsetY) {
+        if (latencyPaint == null) {
+            latencyPaint = new Paint();
+            latencyPaint.setColor(Color.YELLOW);
+            latencyPaint.setTextSize(18);
+            latencyPaint.setTypeface(Typeface.MONOSPACE);
+        }
+
+        String[] lines = LatencyMetrics.getSummaryLines();
+        for (int i = 0; i < lines.length; i++) {
+            canvas.drawText(lines[i], offsetX, offsetY + i * 22, latencyPaint);
+        }
+    }
 }
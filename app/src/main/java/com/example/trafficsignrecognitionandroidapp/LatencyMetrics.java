@@ -0,0 +1,142 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+public class LatencyMetrics {
+
+    // timed stages of one camera frame, in pipeline order
+    public enum Stage {
+        FRAME_ACQUIRE,
+        YUV_TO_RGBA,
+        REGION_PROPOSAL,
+        YUV_TO_TENSOR,
+        ROTATE,
+        RESIZE,
+        TENSOR_FILL,
+        DETECTION_INVOKE,
+        DECODE,
+        NMS,
+        CROP,
+        RECOGNITION_INVOKE,
+        OVERLAY,
+        MAT_TO_BITMAP,
+        CANVAS_POST
+    }
+
+    // one histogram for each stage, shared by all threads
+    private static final Stage[] STAGES = Stage.values();
+    private static final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+
+    static {
+        for (int s = 0; s < STAGES.length; s++) {
+            histograms[s] = new LatencyHistogram();
+        }
+    }
+
+    // settings
+    private static volatile boolean enabled = true;
+    private static volatile boolean overlayEnabled = false;
+
+    private LatencyMetrics() {
+    }
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    public static void setEnabled(boolean enabled) {
+        LatencyMetrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setOverlayEnabled(boolean overlayEnabled) {
+        LatencyMetrics.overlayEnabled = overlayEnabled;
+    }
+
+    public static boolean isOverlayEnabled() {
+        return overlayEnabled;
+    }
+
+    /*-----------------------------------------------*/
+    /* Timing: start = now(), record(stage, start)   */
+    /*-----------------------------------------------*/
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    public static long record(Stage stage, long startNanos) {
+        long stop = System.nanoTime();
+        if (enabled) {
+            histograms[stage.ordinal()].record(stop - startNanos);
+        }
+        return stop;
+    }
+
+    /*------------------------------*/
+    /* Read back                    */
+    /*------------------------------*/
+    public static LatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public static long getPercentile(Stage stage, double percentile) {
+        return histograms[stage.ordinal()].getPercentile(percentile);
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /*------------------------------------------*/
+    /* One line for each stage (debug overlay)  */
+    /*------------------------------------------*/
+    public static String[] getSummaryLines() {
+        String[] lines = new String[STAGES.length];
+        for (int s = 0; s < STAGES.length; s++) {
+            LatencyHistogram histogram = histograms[s];
+            lines[s] = String.format(Locale.US, "%-18s p50 %6.2f  p95 %6.2f  p99 %6.2f ms",
+                    STAGES[s].name(),
+                    toMillis(histogram.getPercentile(50)),
+                    toMillis(histogram.getPercentile(95)),
+                    toMillis(histogram.getPercentile(99)));
+        }
+        return lines;
+    }
+
+    /*------------------------------*/
+    /* Dump all stages as CSV       */
+    /*------------------------------*/
+    public static void dump(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            dump(writer);
+        }
+    }
+
+    public static void dump(Writer writer) throws IOException {
+        writer.write("stage,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+        for (int s = 0; s < STAGES.length; s++) {
+            LatencyHistogram histogram = histograms[s];
+            writer.write(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f\n",
+                    STAGES[s].name(),
+                    histogram.getCount(),
+                    toMillis(histogram.getMean()),
+                    toMillis(histogram.getPercentile(50)),
+                    toMillis(histogram.getPercentile(95)),
+                    toMillis(histogram.getPercentile(99)),
+                    toMillis(histogram.getMax())));
+        }
+        writer.flush();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -11,19 +11,9 @@ import android.view.Window;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
-import org.opencv.android.OpenCVLoader;
-
 public class MainActivity extends AppCompatActivity {
     private static String TAG = "MainActivity";
 
-    static {
-        if (OpenCVLoader.initDebug()) {
-            Log.d(TAG, "Opencv load");
-        } else {
-            Log.d(TAG, "Opencv fail");
-        }
-    }
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -0,0 +1,268 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.nio.ByteBuffer;
+
+public class MatPreprocessor {
+
+    // letterbox border, gray as in YOLO training
+    private static final Scalar PAD_COLOR = new Scalar(114, 114, 114, 255);
+
+    // model input
+    private final int batchSize;
+    private final int inputSize;
+    private final boolean quantized;
+    private final Size inputShape;
+    private final TensorBufferPool.InputTensor tensor;
+
+    // preallocated intermediate images
+    private final Mat resized;
+    private final Mat rgb;
+
+    // headers over tensor native memory (one for each batch slot) -> OpenCV writes straight into model input
+    private final Mat[] tensorMats;
+
+    // views of one image and of first n images, capacity must match input tensor size
+    private final ByteBuffer[] slotViews;
+    private final ByteBuffer[] batchViews;
+
+    // int8 / uint8 model input parameters (null -> pixels as they are)
+    private Quantization inputQuantization;
+
+    // record resize / tensor fill stages (frames only, crops are timed as a whole)
+    private boolean recordLatency = false;
+
+    // aspect preserving resize + constant border, transform from model input to last source image
+    private boolean letterbox = false;
+    private final Mat scaled = new Mat();
+    private final Size scaledShape = new Size();
+    private final FrameTransform transform = new FrameTransform();
+
+    // camera YUV -> model input in one pass (created on first YUV frame)
+    private YuvTensorKernel yuvKernel;
+    private byte[] resizedPixels;
+
+    /*------------------------------*/
+    /* MatPreprocessor constructor  */
+    /*------------------------------*/
+    MatPreprocessor(TensorBufferPool tensorBufferPool, int inputSize, int pixelSize, boolean quantized) {
+        this(tensorBufferPool, 1, inputSize, pixelSize, quantized);
+    }
+
+    MatPreprocessor(TensorBufferPool tensorBufferPool, int batchSize, int inputSize, int pixelSize, boolean quantized) {
+        this(tensorBufferPool.acquire(batchSize, inputSize, pixelSize, quantized), batchSize, inputSize, quantized);
+    }
+
+    MatPreprocessor(TensorBufferPool.InputTensor tensor, int batchSize, int inputSize, boolean quantized) {
+        this.batchSize = batchSize;
+        this.inputSize = inputSize;
+        this.quantized = quantized;
+        this.tensor = tensor;
+        inputShape = new Size(inputSize, inputSize);
+
+        resized = new Mat(inputSize, inputSize, CvType.CV_8UC4);
+        rgb = new Mat(inputSize, inputSize, CvType.CV_8UC3);
+
+        // slice tensor memory for each image of batch
+        ByteBuffer buffer = tensor.getBuffer();
+        int imageBytes = buffer.capacity() / batchSize;
+        tensorMats = new Mat[batchSize];
+        slotViews = new ByteBuffer[batchSize];
+        batchViews = new ByteBuffer[batchSize + 1];
+        for (int slot = 0; slot < batchSize; slot++) {
+            slotViews[slot] = slice(buffer, slot * imageBytes, imageBytes);
+            batchViews[slot + 1] = slice(buffer, 0, (slot + 1) * imageBytes);
+            tensorMats[slot] = new Mat(inputSize, inputSize, quantized ? CvType.CV_8UC3 : CvType.CV_32FC3, slotViews[slot]);
+        }
+    }
+
+    public void setRecordLatency(boolean recordLatency) {
+        this.recordLatency = recordLatency;
+    }
+
+    // quantized input only: scale / zero point of model input tensor
+    public void setInputQuantization(Quantization inputQuantization) {
+        this.inputQuantization = inputQuantization;
+        if (yuvKernel != null) {
+            yuvKernel.setOutput(quantized, inputQuantization);
+        }
+
+        // int8 input -> signed headers over same tensor memory
+        int type = inputQuantization != null && inputQuantization.isSigned() ? CvType.CV_8SC3 : CvType.CV_8UC3;
+        for (int slot = 0; slot < batchSize; slot++) {
+            if (quantized && tensorMats[slot].type() != type) {
+                tensorMats[slot].release();
+                tensorMats[slot] = new Mat(inputSize, inputSize, type, slotViews[slot]);
+            }
+        }
+    }
+
+    public void setLetterbox(boolean letterbox) {
+        this.letterbox = letterbox;
+        if (yuvKernel != null) {
+            yuvKernel.setLetterbox(letterbox);
+        }
+    }
+
+    static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice().order(buffer.order());
+    }
+
+    /*-----------------------------------------------*/
+    /* RGBA image -> normalized RGB model input      */
+    /*-----------------------------------------------*/
+    public ByteBuffer toTensor(Mat rgbaImg) {
+        toTensor(rgbaImg, 0);
+        return tensor.getBuffer();
+    }
+
+    /*-----------------------------------------------*/
+    /* RGBA image -> slot of batched model input     */
+    /*-----------------------------------------------*/
+    public void toTensor(Mat rgbaImg, int slot) {
+        Mat tensorMat = tensorMats[slot];
+
+        // resize into preallocated image
+        long startTime = recordLatency ? LatencyMetrics.now() : 0;
+        if (letterbox) {
+            letterbox(rgbaImg);
+        }
+        else {
+            Imgproc.resize(rgbaImg, resized, inputShape, 0, 0, Imgproc.INTER_LINEAR);
+            transform.setIdentity();
+        }
+        if (recordLatency) {
+            startTime = LatencyMetrics.record(LatencyMetrics.Stage.RESIZE, startTime);
+        }
+
+        if (quantized && (inputQuantization == null || inputQuantization.isPixelIdentity())) {
+            // drop alpha directly into model input
+            Imgproc.cvtColor(resized, tensorMat, Imgproc.COLOR_RGBA2RGB);
+        }
+        else if (quantized) {
+            // pixel / 255 -> quantized value in one saturating pass, no float image
+            Imgproc.cvtColor(resized, rgb, Imgproc.COLOR_RGBA2RGB);
+            rgb.convertTo(tensorMat, tensorMat.type(), 1.0 / (255.0 * inputQuantization.getScale()), inputQuantization.getZeroPoint());
+        }
+        else {
+            // drop alpha and normalize into model input
+            Imgproc.cvtColor(resized, rgb, Imgproc.COLOR_RGBA2RGB);
+            rgb.convertTo(tensorMat, CvType.CV_32FC3, 1.0 / 255.0);
+        }
+
+        if (recordLatency) {
+            LatencyMetrics.record(LatencyMetrics.Stage.TENSOR_FILL, startTime);
+        }
+    }
+
+    /*-------------------------------------------------------*/
+    /* Camera YUV frame -> rotated model input, one pass     */
+    /*-------------------------------------------------------*/
+    // only sampled pixels are converted, resized RGBA image still filled for recognition crops
+    public ByteBuffer toTensor(byte[] yuv, int width, int height, boolean nv21) {
+        if (yuvKernel == null) {
+            yuvKernel = new YuvTensorKernel(inputSize);
+            yuvKernel.setOutput(quantized, inputQuantization);
+            yuvKernel.setLetterbox(letterbox);
+            resizedPixels = new byte[inputSize * inputSize * 4];
+        }
+
+        long startTime = recordLatency ? LatencyMetrics.now() : 0;
+        yuvKernel.convert(yuv, width, height, nv21, getSlot(0), resizedPixels);
+        resized.put(0, 0, resizedPixels);
+        transform.set(yuvKernel.getTransform());
+        if (recordLatency) {
+            LatencyMetrics.record(LatencyMetrics.Stage.YUV_TO_TENSOR, startTime);
+        }
+        return tensor.getBuffer();
+    }
+
+    /*---------------------------------------------------*/
+    /* Resize keeping aspect ratio, pad rest of square   */
+    /*---------------------------------------------------*/
+    private void letterbox(Mat rgbaImg) {
+        int width = rgbaImg.cols();
+        int height = rgbaImg.rows();
+        double scale = Math.min((double) inputSize / width, (double) inputSize / height);
+        int contentW = Math.max(1, Math.min(inputSize, (int) Math.round(width * scale)));
+        int contentH = Math.max(1, Math.min(inputSize, (int) Math.round(height * scale)));
+        int left = (inputSize - contentW) / 2;
+        int top = (inputSize - contentH) / 2;
+
+        if (contentW == inputSize && contentH == inputSize) {
+            // square source -> no border
+            Imgproc.resize(rgbaImg, resized, inputShape, 0, 0, Imgproc.INTER_LINEAR);
+        }
+        else {
+            // scaled content reallocated only if source size changes, border written into pooled input image
+            scaledShape.width = contentW;
+            scaledShape.height = contentH;
+            Imgproc.resize(rgbaImg, scaled, scaledShape, 0, 0, Imgproc.INTER_LINEAR);
+            Core.copyMakeBorder(scaled, resized, top, inputSize - contentH - top, left, inputSize - contentW - left,
+                    Core.BORDER_CONSTANT, PAD_COLOR);
+        }
+
+        // model input coordinates -> source image coordinates
+        transform.setLetterbox((float) left / inputSize, (float) top / inputSize,
+                (float) contentW / inputSize, (float) contentH / inputSize);
+    }
+
+    /*------------------------------------------*/
+    /* Model input holding first n images       */
+    /*------------------------------------------*/
+    public ByteBuffer getBatch(int n) {
+        ByteBuffer view = batchViews[n];
+        view.rewind();
+        return view;
+    }
+
+    /*------------------------------------------*/
+    /* Model input holding only image of slot   */
+    /*------------------------------------------*/
+    public ByteBuffer getSlot(int slot) {
+        ByteBuffer view = slotViews[slot];
+        view.rewind();
+        return view;
+    }
+
+    /*------------------------------------------*/
+    /* Last resized image (RGBA, input size)    */
+    /*------------------------------------------*/
+    public Mat getResized() {
+        return resized;
+    }
+
+    // normalized box in model input -> normalized box in last source image
+    public FrameTransform getTransform() {
+        return transform;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /*------------------------------*/
+    /* Release native memory        */
+    /*------------------------------*/
+    public void release() {
+        resized.release();
+        rgb.release();
+        scaled.release();
+        for (Mat tensorMat : tensorMats) {
+            tensorMat.release();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.util.Objects;
+
+public final class ModelConfig {
+
+    // default configuration used by camera and pick activities
+    public static final ModelConfig DEFAULT = new ModelConfig(
+            "yolov5n.tflite",
+            "nlcnn_model_99_64.tflite",
+            "labelmap.txt",
+            640,
+            48,
+            2,
+            1);
+
+    // detection & recognition
+    final String detectionPathModel;
+    final String recognitionPathModel;
+    final String pathLabels;
+    final int detectionModelInputSize;
+    final int recognitionModelInputSize;
+
+    // interpreters
+    final int threadsDetection;
+    final int threadsRecognition;
+
+    // runtime of each model (OpenCV DNN expects ONNX exports of same models)
+    final InferenceEngine.Backend detectionBackend;
+    final InferenceEngine.Backend recognitionBackend;
+
+    /*------------------------------*/
+    /* ModelConfig constructor      */
+    /*------------------------------*/
+    public ModelConfig(String detectionPathModel, String recognitionPathModel, String pathLabels,
+                       int detectionModelInputSize, int recognitionModelInputSize,
+                       int threadsDetection, int threadsRecognition) {
+        this(detectionPathModel, recognitionPathModel, pathLabels, detectionModelInputSize, recognitionModelInputSize,
+                threadsDetection, threadsRecognition, InferenceEngine.Backend.TFLITE, InferenceEngine.Backend.TFLITE);
+    }
+
+    public ModelConfig(String detectionPathModel, String recognitionPathModel, String pathLabels,
+                       int detectionModelInputSize, int recognitionModelInputSize,
+                       int threadsDetection, int threadsRecognition,
+                       InferenceEngine.Backend detectionBackend, InferenceEngine.Backend recognitionBackend) {
+        this.detectionPathModel = detectionPathModel;
+        this.recognitionPathModel = recognitionPathModel;
+        this.pathLabels = pathLabels;
+        this.detectionModelInputSize = detectionModelInputSize;
+        this.recognitionModelInputSize = recognitionModelInputSize;
+        this.threadsDetection = threadsDetection;
+        this.threadsRecognition = threadsRecognition;
+        this.detectionBackend = detectionBackend;
+        this.recognitionBackend = recognitionBackend;
+    }
+
+    // OpenCV native library must be loaded before engines are created
+    public boolean needsOpenCv() {
+        return detectionBackend == InferenceEngine.Backend.OPENCV_DNN || recognitionBackend == InferenceEngine.Backend.OPENCV_DNN;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ModelConfig)) return false;
+        ModelConfig that = (ModelConfig) o;
+        return detectionModelInputSize == that.detectionModelInputSize &&
+                recognitionModelInputSize == that.recognitionModelInputSize &&
+                threadsDetection == that.threadsDetection &&
+                threadsRecognition == that.threadsRecognition &&
+                detectionBackend == that.detectionBackend &&
+                recognitionBackend == that.recognitionBackend &&
+                detectionPathModel.equals(that.detectionPathModel) &&
+                recognitionPathModel.equals(that.recognitionPathModel) &&
+                pathLabels.equals(that.pathLabels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(detectionPathModel, recognitionPathModel, pathLabels,
+                detectionModelInputSize, recognitionModelInputSize, threadsDetection, threadsRecognition,
+                detectionBackend, recognitionBackend);
+    }
+
+    @Override
+    public String toString() {
+        return detectionPathModel + " + " + recognitionPathModel + " (" + detectionModelInputSize + "/" + recognitionModelInputSize + ", "
+                + detectionBackend + "/" + recognitionBackend + ")";
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+public class NonMaxSuppression {
+
+    // suppression methods
+    public static final int GREEDY = 0;
+    public static final int SOFT_LINEAR = 1;
+    public static final int SOFT_GAUSSIAN = 2;
+
+    // data members
+    private final int capacity;
+    private final int method;
+    private float iouThreshold;
+    private boolean classAware = false;
+    private float sigma = 0.5F;
+    private float scoreThreshold = 0.001F;
+
+    // work arrays (reused between calls)
+    private final int[] order;
+    private final boolean[] removed;
+    private final float[] scores;
+    private final float[] x1, y1, x2, y2, area;
+
+    // output
+    private final int[] kept;
+    private final float[] keptScores;
+    private int keptCount;
+
+    /*-------------------------------*/
+    /* NonMaxSuppression constructor */
+    /*-------------------------------*/
+    public NonMaxSuppression(int capacity, float iouThreshold) {
+        this(capacity, iouThreshold, GREEDY);
+    }
+
+    public NonMaxSuppression(int capacity, float iouThreshold, int method) {
+        this.capacity = capacity;
+        this.iouThreshold = iouThreshold;
+        this.method = method;
+
+        order = new int[capacity];
+        removed = new boolean[capacity];
+        scores = new float[capacity];
+        x1 = new float[capacity];
+        y1 = new float[capacity];
+        x2 = new float[capacity];
+        y2 = new float[capacity];
+        area = new float[capacity];
+        kept = new int[capacity];
+        keptScores = new float[capacity];
+    }
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    public void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    // suppress only boxes with same class (classes must be given to apply)
+    public void setClassAware(boolean classAware) {
+        this.classAware = classAware;
+    }
+
+    // soft-NMS: gaussian sigma and minimum score kept after decay
+    public void setSoftParameters(float sigma, float scoreThreshold) {
+        this.sigma = sigma;
+        this.scoreThreshold = scoreThreshold;
+    }
+
+    /*---------------------------------------------------------------*/
+    /* Suppress boxes given as center x, y, w, h primitive arrays    */
+    /*---------------------------------------------------------------*/
+    public int apply(float[] cx, float[] cy, float[] w, float[] h, float[] score, int[] classes, int count) {
+        return apply(cx, 0, cy, 0, w, 0, h, 0, score, 0, classes, count);
+    }
+
+    /*---------------------------------------------------------------*/
+    /* Suppress DetectionDecoder results (struct of arrays layout)   */
+    /*---------------------------------------------------------------*/
+    public int apply(float[] decoded, int stride, int[] classes, int count) {
+        return apply(decoded, DetectionDecoder.X * stride,
+                decoded, DetectionDecoder.Y * stride,
+                decoded, DetectionDecoder.W * stride,
+                decoded, DetectionDecoder.H * stride,
+                decoded, DetectionDecoder.SCORE * stride,
+                classes, count);
+    }
+
+    private int apply(float[] cx, int cxOffset, float[] cy, int cyOffset, float[] w, int wOffset,
+                      float[] h, int hOffset, float[] score, int scoreOffset, int[] classes, int count) {
+        count = Math.min(count, capacity);
+        keptCount = 0;
+
+        // corners and areas
+        for (int i = 0; i < count; i++) {
+            float halfW = w[wOffset + i] / 2;
+            float halfH = h[hOffset + i] / 2;
+            x1[i] = cx[cxOffset + i] - halfW;
+            y1[i] = cy[cyOffset + i] - halfH;
+            x2[i] = cx[cxOffset + i] + halfW;
+            y2[i] = cy[cyOffset + i] + halfH;
+            area[i] = w[wOffset + i] * h[hOffset + i];
+            scores[i] = score[scoreOffset + i];
+            removed[i] = false;
+        }
+
+        if (method == GREEDY) {
+            greedy(classes, count);
+        }
+        else {
+            soft(classes, count);
+        }
+
+        return keptCount;
+    }
+
+    /*------------------------------*/
+    /* Output                       */
+    /*------------------------------*/
+    public int getKeptCount() {
+        return keptCount;
+    }
+
+    // index of k-th kept box in input arrays (best first)
+    public int getKept(int k) {
+        return kept[k];
+    }
+
+    // score of k-th kept box (decayed for soft-NMS)
+    public float getKeptScore(int k) {
+        return keptScores[k];
+    }
+
+    /*------------------------------------------*/
+    /* Greedy: keep best, remove overlapping    */
+    /*------------------------------------------*/
+    private void greedy(int[] classes, int count) {
+        sortByScore(count);
+
+        for (int a = 0; a < count; a++) {
+            int i = order[a];
+            if (removed[i]) {
+                continue;
+            }
+
+            kept[keptCount] = i;
+            keptScores[keptCount] = scores[i];
+            keptCount++;
+
+            for (int b = a + 1; b < count; b++) {
+                int j = order[b];
+                if (!removed[j] && sameGroup(classes, i, j) && iou(i, j) > iouThreshold) {
+                    removed[j] = true;
+                }
+            }
+        }
+    }
+
+    /*------------------------------------------------*/
+    /* Soft: decay scores of overlapping boxes        */
+    /*------------------------------------------------*/
+    private void soft(int[] classes, int count) {
+        for (int a = 0; a < count; a++) {
+            // best remaining box
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (!removed[i] && (best == -1 || scores[i] > scores[best])) {
+                    best = i;
+                }
+            }
+            if (best == -1 || scores[best] < scoreThreshold) {
+                break;
+            }
+
+            removed[best] = true;
+            kept[keptCount] = best;
+            keptScores[keptCount] = scores[best];
+            keptCount++;
+
+            // decay the others
+            for (int j = 0; j < count; j++) {
+                if (removed[j] || !sameGroup(classes, best, j)) {
+                    continue;
+                }
+                float overlap = iou(best, j);
+                if (method == SOFT_LINEAR) {
+                    if (overlap > iouThreshold) {
+                        scores[j] *= 1 - overlap;
+                    }
+                }
+                else {
+                    scores[j] *= (float) Math.exp(-(overlap * overlap) / sigma);
+                }
+            }
+        }
+    }
+
+    private boolean sameGroup(int[] classes, int i, int j) {
+        return !classAware || classes == null || classes[i] == classes[j];
+    }
+
+    /*------------------------------*/
+    /* Intersection over union      */
+    /*------------------------------*/
+    private float iou(int i, int j) {
+        float w = Math.min(x2[i], x2[j]) - Math.max(x1[i], x1[j]);
+        float h = Math.min(y2[i], y2[j]) - Math.max(y1[i], y1[j]);
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        float intersection = w * h;
+        return intersection / (area[i] + area[j] - intersection);
+    }
+
+    /*---------------------------------------------*/
+    /* IoU of two boxes in center x, y, w, h form  */
+    /*---------------------------------------------*/
+    public static float iou(float cx1, float cy1, float w1, float h1, float cx2, float cy2, float w2, float h2) {
+        float w = Math.min(cx1 + w1 / 2, cx2 + w2 / 2) - Math.max(cx1 - w1 / 2, cx2 - w2 / 2);
+        float h = Math.min(cy1 + h1 / 2, cy2 + h2 / 2) - Math.max(cy1 - h1 / 2, cy2 - h2 / 2);
+        if (w <= 0 || h <= 0) {
+            return 0;
+        }
+        float intersection = w * h;
+        return intersection / (w1 * h1 + w2 * h2 - intersection);
+    }
+
+    /*------------------------------------------*/
+    /* Indices by score descending (insertion)  */
+    /*------------------------------------------*/
+    // decoder candidates come best first -> linear pass
+    private void sortByScore(int count) {
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            int k = i - 1;
+            while (k >= 0 && scores[order[k]] < scores[index]) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = index;
+        }
+    }
+}
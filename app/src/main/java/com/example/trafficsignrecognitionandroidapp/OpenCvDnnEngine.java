@@ -0,0 +1,168 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OpenCvDnnEngine implements InferenceEngine {
+
+    // images already normalized by preprocessing -> blob is a plain NHWC to NCHW reorder
+    private static final Scalar NO_MEAN = new Scalar(0, 0, 0);
+
+    // data members (net dropped on close, native net freed when collected)
+    private Net net;
+    private boolean closed = false;
+    private final int[] inputShape;
+    private final int[] outputShape;
+    private final Size imageSize;
+    private final int imageBytes;
+
+    // headers over caller buffers, rebuilt only when caller binds other buffers
+    private ByteBuffer boundInput;
+    private int boundBatch;
+    private final List<Mat> images = new ArrayList<>();
+    private ByteBuffer boundOutput;
+    private Mat outputMat;
+
+    /*--------------------------------*/
+    /* OpenCvDnnEngine constructor    */
+    /*--------------------------------*/
+    // model: ONNX export, inputShape: float NHWC input filled by MatPreprocessor (OpenCV must be loaded)
+    OpenCvDnnEngine(ByteBuffer model, int[] inputShape) {
+        byte[] bytes = new byte[model.capacity()];
+        ByteBuffer view = model.duplicate();
+        view.rewind();
+        view.get(bytes);
+        MatOfByte buffer = new MatOfByte(bytes);
+        net = Dnn.readNetFromONNX(buffer);
+        buffer.release();
+        net.setPreferableBackend(Dnn.DNN_BACKEND_OPENCV);
+        net.setPreferableTarget(Dnn.DNN_TARGET_CPU);
+
+        this.inputShape = inputShape.clone();
+        imageSize = new Size(inputShape[2], inputShape[1]);
+        imageBytes = 4 * inputShape[1] * inputShape[2] * inputShape[3];
+
+        // output shape is only known after a forward pass -> one run on zero input
+        ByteBuffer input = ByteBuffer.allocateDirect(imageBytes * inputShape[0]);
+        input.order(ByteOrder.nativeOrder());
+        Mat result = forward(input);
+        outputShape = new int[result.dims()];
+        for (int d = 0; d < outputShape.length; d++) {
+            outputShape[d] = result.size(d);
+        }
+        result.release();
+        unbindInput();
+    }
+
+    /*------------------------------*/
+    /* Description                  */
+    /*------------------------------*/
+    @Override
+    public int[] getInputShape() {
+        return inputShape.clone();
+    }
+
+    @Override
+    public int[] getOutputShape() {
+        return outputShape.clone();
+    }
+
+    // ONNX exports run in float
+    @Override
+    public Quantization getInputQuantization() {
+        return null;
+    }
+
+    @Override
+    public Quantization getOutputQuantization() {
+        return null;
+    }
+
+    /*------------------------------*/
+    /* Execution                    */
+    /*------------------------------*/
+    // blob built from any number of images
+    @Override
+    public boolean supportsBatchResize() {
+        return true;
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        inputShape[0] = shape[0];
+        outputShape[0] = shape[0];
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        if (closed) {
+            throw new IllegalStateException("Engine closed");
+        }
+        Mat result = forward(input);
+
+        // copy into header over caller output -> same size and type, no reallocation
+        if (output != boundOutput) {
+            if (outputMat != null) {
+                outputMat.release();
+            }
+            outputMat = new Mat(1, output.capacity() / 4, CvType.CV_32F, output);
+            boundOutput = output;
+        }
+        Mat flat = result.reshape(1, 1);
+        flat.copyTo(outputMat);
+        flat.release();
+        result.release();
+    }
+
+    private Mat forward(ByteBuffer input) {
+        // one float RGB header for each image of current batch
+        int batch = inputShape[0];
+        if (input != boundInput || batch != boundBatch) {
+            unbindInput();
+            for (int i = 0; i < batch; i++) {
+                images.add(new Mat(inputShape[1], inputShape[2], CvType.CV_32FC3, MatPreprocessor.slice(input, i * imageBytes, imageBytes)));
+            }
+            boundInput = input;
+            boundBatch = batch;
+        }
+
+        Mat blob = Dnn.blobFromImages(images, 1.0, imageSize, NO_MEAN, false, false, CvType.CV_32F);
+        net.setInput(blob);
+        Mat result = net.forward();
+        blob.release();
+        return result;
+    }
+
+    private void unbindInput() {
+        for (Mat image : images) {
+            image.release();
+        }
+        images.clear();
+        boundInput = null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        unbindInput();
+        if (outputMat != null) {
+            outputMat.release();
+            outputMat = null;
+        }
+        boundOutput = null;
+        net = null;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.util.Log;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OverlayRenderer {
+    private String TAG = "OverlayRenderer";
+
+    // colors (RGBA)
+    private static final Scalar BOX_COLOR = new Scalar(250, 153, 28, 255);
+    private static final Scalar TEXT_COLOR = new Scalar(28, 118, 143, 255);
+
+    // two text lines above box
+    private static final int LABEL_HEIGHT = 40;
+
+    // data members
+    private final List<String> labelList;
+    private final float confidence;
+
+    // pixels under one label in displayed orientation, reused (created on first rotated label)
+    // -> one renderer for each drawing thread, released by its owner
+    private Mat labelPatch;
+
+    /*------------------------------*/
+    /* OverlayRenderer constructor  */
+    /*------------------------------*/
+    OverlayRenderer(List<String> labelList, float confidence) {
+        this.labelList = Collections.unmodifiableList(new ArrayList<>(labelList));
+        this.confidence = confidence;
+    }
+
+    /*------------------------------*/
+    /* Draw boxes after detection   */
+    /*------------------------------*/
+    // toImage: box coordinates -> matImg coordinates (null -> boxes already in image coordinates)
+    public void drawBoxes(DetectionBatch batch, Mat matImg, List<String> listOfResults, List<Integer> displayedSignClass,
+                          boolean realTime, FrameTransform toImage, String FPS) {
+        // check input data
+        if(batch == null || matImg.empty()) {
+            return;
+        }
+        long startTime = LatencyMetrics.now();
+
+        // initializations
+        int frameWidth = matImg.width();
+        int frameHeight = matImg.height();
+        float x, y, w, h, left, top, right, bottom;
+        String displayedText, classText, accText;
+        List<String> displayedTextArray = new ArrayList<>();
+
+        // detection + recognition latency
+        int latency = batch.getTotalLatency();
+
+        // for each recognition, draw result
+        for(int i = 0; i < batch.getCount(); i ++) {
+            if (isDisplayed(batch, i)) {
+                // box mapped onto frame as it is (no rotated copy of frame)
+                x = toImage != null ? toImage.mapX(batch.x[i], batch.y[i]) : batch.x[i];
+                y = toImage != null ? toImage.mapY(batch.x[i], batch.y[i]) : batch.y[i];
+                w = toImage != null ? toImage.mapW(batch.w[i], batch.h[i]) : batch.w[i];
+                h = toImage != null ? toImage.mapH(batch.w[i], batch.h[i]) : batch.h[i];
+                left = (x - w / 2) * frameWidth;
+                top = (y - h / 2) * frameHeight;
+                right = (x + w / 2) * frameWidth;
+                bottom = (y + h / 2) * frameHeight;
+
+                // draw rectangle in Original frame
+                Imgproc.rectangle(matImg,
+                        new Point(left, top),
+                        new Point(right, bottom),
+                        BOX_COLOR, 2);
+
+                // set class and accuracy as text
+                classText = getClassText(batch.classId[i]);
+                accText = getAccuracyText(batch.classScore[i]);
+                displayedText =  classText + " " + accText;
+                displayedTextArray.add(displayedText);
+                displayedSignClass.add(0, batch.classId[i]);
+
+                // write text on frame, upright in displayed orientation
+                if (toImage != null && toImage.isSwapped()) {
+                    drawRotatedLabel(matImg, batch, i, classText, accText);
+                }
+                else {
+                    drawLabel(matImg, classText, accText, left, top);
+                }
+            }
+        }
+
+        // get list of results
+        getListOfResults(listOfResults, displayedTextArray, latency, realTime, FPS);
+
+        LatencyMetrics.record(LatencyMetrics.Stage.OVERLAY, startTime);
+
+        // log total latency
+        Log.d(TAG, "drawBoxes: Total latency: " + latency + " ms");
+    }
+
+    private static void drawLabel(Mat mat, String classText, String accText, double left, double top) {
+        Imgproc.putText(mat,
+                classText,
+                new Point(left, top - 26),
+                1, 1, TEXT_COLOR, 2);
+
+        Imgproc.putText(mat,
+                accText,
+                new Point(left, top - 6),
+                1, 1, TEXT_COLOR, 2);
+    }
+
+    /*--------------------------------------------------------------*/
+    /* Label of frame displayed rotated 90 clockwise: small patch   */
+    /*--------------------------------------------------------------*/
+    // only pixels under label are rotated upright, written on, rotated back
+    private void drawRotatedLabel(Mat frame, DetectionBatch batch, int i, String classText, String accText) {
+        // displayed frame is frame rotated clockwise: width = frame rows, height = frame columns
+        int displayWidth = frame.rows();
+        int displayHeight = frame.cols();
+        int textWidth = (int) Math.max(Imgproc.getTextSize(classText, 1, 1, 2, null).width,
+                Imgproc.getTextSize(accText, 1, 1, 2, null).width) + 2;
+
+        // label block above box in displayed coordinates, clipped
+        int boxLeft = (int) ((batch.x[i] - batch.w[i] / 2) * displayWidth);
+        int boxTop = (int) ((batch.y[i] - batch.h[i] / 2) * displayHeight);
+        int labelLeft = Math.max(0, boxLeft);
+        int labelTop = Math.max(0, boxTop - LABEL_HEIGHT);
+        int labelRight = Math.min(displayWidth, boxLeft + textWidth);
+        int labelBottom = Math.min(displayHeight, boxTop);
+        if (labelRight - labelLeft < 1 || labelBottom - labelTop < 1) {
+            return;
+        }
+
+        // displayed (x, y) -> frame (column y, row rows - 1 - x)
+        Rect region = new Rect(labelTop, displayWidth - labelRight, labelBottom - labelTop, labelRight - labelLeft);
+        if (labelPatch == null) {
+            labelPatch = new Mat();
+        }
+        Mat roi = frame.submat(region);
+        Core.rotate(roi, labelPatch, Core.ROTATE_90_CLOCKWISE);
+        drawLabel(labelPatch, classText, accText, boxLeft - labelLeft, boxTop - labelTop);
+        Core.rotate(labelPatch, roi, Core.ROTATE_90_COUNTERCLOCKWISE);
+        roi.release();
+    }
+
+    /*------------------------------*/
+    /* Release label patch          */
+    /*------------------------------*/
+    public void release() {
+        if (labelPatch != null) {
+            labelPatch.release();
+            labelPatch = null;
+        }
+    }
+
+    /*----------------------------------------------*/
+    /* Results only, boxes drawn by overlay view    */
+    /*----------------------------------------------*/
+    public void collectResults(DetectionBatch batch, List<String> listOfResults, List<Integer> displayedSignClass, boolean realTime, String FPS) {
+        if (batch == null) {
+            return;
+        }
+
+        List<String> displayedTextArray = new ArrayList<>();
+        for (int i = 0; i < batch.getCount(); i++) {
+            if (isDisplayed(batch, i)) {
+                displayedTextArray.add(getClassText(batch.classId[i]) + " " + getAccuracyText(batch.classScore[i]));
+                displayedSignClass.add(0, batch.classId[i]);
+            }
+        }
+        getListOfResults(listOfResults, displayedTextArray, batch.getTotalLatency(), realTime, FPS);
+    }
+
+    /*------------------------------*/
+    /* Box labels                   */
+    /*------------------------------*/
+    public boolean isDisplayed(DetectionBatch batch, int i) {
+        return batch.detectionScore[i] > confidence && batch.classId[i] >= 0;
+    }
+
+    public String getClassText(int classId) {
+        return labelList.get(classId);
+    }
+
+    public static String getAccuracyText(float classScore) {
+        return "(" + String.format("%.2f", classScore * 100) + "%)";
+    }
+
+    /*----------------------------------------------*/
+    /* Add recognition results in a list of results */
+    /*----------------------------------------------*/
+    private void getListOfResults(List<String> listOfResults, List<String> displayedTextArray, float latency, boolean realTime, String FPS) {
+        String returnedText = "";
+
+        if(realTime) {
+            returnedText += displayedTextArray.size() + " signs";
+            returnedText += "\n" + latency + " ms";
+            returnedText += "\n" + FPS.split("@")[0];
+            if(listOfResults.size() > 0) {
+                listOfResults.remove(0);
+            }
+            listOfResults.add(returnedText);
+        }
+        else {
+            returnedText += "Number of detected signs: " + displayedTextArray.size() + "\n\n";
+            for (String text : displayedTextArray) {
+                returnedText += text + "\n";
+            }
+            returnedText += "\nTotal latency: " + latency + " ms";
+            listOfResults.add(0, returnedText);
+        }
+    }
+}
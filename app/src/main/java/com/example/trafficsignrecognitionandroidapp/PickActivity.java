@@ -2,6 +2,7 @@ package com.example.trafficsignrecognitionandroidapp;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import android.content.Intent;
 import android.database.Cursor;
@@ -98,13 +99,26 @@ public class PickActivity extends AppCompatActivity {
         listOfResults.add(0, defaultText);
         adapter.notifyDataSetChanged();
 
-        // load model
-        try {
-            signRecognition = new SignRecognition(getAssets());
-            Log.d(TAG, "Model is successfully loaded");
-        } catch (IOException e) {
-            Log.d(TAG, "Getting some error: " + e.getMessage());
-        }
+        // select enabled once OpenCV and models are loaded by application
+        selectImage.setEnabled(false);
+        ((TrafficSignApplication) getApplication()).getReady().whenCompleteAsync((engine, failure) -> {
+            if (failure != null) {
+                Log.d(TAG, "Getting some error: " + failure.getMessage());
+                return;
+            }
+            if (isDestroyed()) {
+                return;
+            }
+
+            // get shared model (already loaded, reference for this activity)
+            try {
+                signRecognition = SignRecognitionRegistry.acquire(this);
+                selectImage.setEnabled(true);
+                Log.d(TAG, "Model is successfully loaded");
+            } catch (IOException e) {
+                Log.d(TAG, "Getting some error: " + e.getMessage());
+            }
+        }, ContextCompat.getMainExecutor(this));
 
         // action for select image button
         selectImage.setOnClickListener(new View.OnClickListener() {
@@ -126,6 +140,15 @@ public class PickActivity extends AppCompatActivity {
 
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        // release shared model
+        SignRecognitionRegistry.release(signRecognition);
+        signRecognition = null;
+    }
+
     private void imageChooser() {
         // create an instance of the
         // intent of the type image
@@ -0,0 +1,67 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+
+public final class Quantization {
+
+    // real value = scale * (quantized value - zero point), int8 or uint8 storage
+    private final float scale;
+    private final int zeroPoint;
+    private final boolean signed;
+
+    /*------------------------------*/
+    /* Quantization constructor     */
+    /*------------------------------*/
+    public Quantization(float scale, int zeroPoint, boolean signed) {
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+        this.signed = signed;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public float getScale() {
+        return scale;
+    }
+
+    public int getZeroPoint() {
+        return zeroPoint;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    // uint8 input with scale 1/255 -> camera pixels are already model input
+    public boolean isPixelIdentity() {
+        return !signed && zeroPoint == 0 && Math.abs(scale * 255 - 1) < 1e-3F;
+    }
+
+    /*------------------------------*/
+    /* Conversions                  */
+    /*------------------------------*/
+    public int raw(byte value) {
+        return signed ? value : value & 0xFF;
+    }
+
+    public float dequantize(int raw) {
+        return scale * (raw - zeroPoint);
+    }
+
+    public float dequantize(ByteBuffer buffer, int index) {
+        return dequantize(raw(buffer.get(index)));
+    }
+
+    // smallest raw value whose real value is >= threshold -> compare without dequantizing
+    public int rawAtLeast(float threshold) {
+        return (int) Math.ceil(threshold / scale + zeroPoint - 1e-4F);
+    }
+
+    // dequantize one row of output into float array
+    public void dequantize(ByteBuffer buffer, int offset, float[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            values[i] = dequantize(raw(buffer.get(offset + i)));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+public class RecognitionCache {
+
+    // data members
+    private final int capacity;
+    private final int numberOfClasses;
+
+    // settings
+    private float minIou = 0.3F;
+    private int maxAge = 5; // frames an unseen sign is kept
+    private int minVotes = 2; // recognitions before result can be reused
+    private float confidentShare = 0.9F; // mean probability of voted class
+    private int reverifyInterval = 30; // frames between recognitions of a stable sign
+    private float maxScaleChange = 1.5F; // box area ratio since last recognition
+    private float decay = 0.9F; // weight of older votes
+
+    // entries (struct of arrays), one for each physical sign
+    private final boolean[] used;
+    private final float[] x, y, w, h;
+    private final float[] votes;
+    private final float[] voteWeight;
+    private final int[] voteCount;
+    private final int[] lastSeen;
+    private final int[] lastVerified;
+    private final float[] verifiedArea;
+    private final boolean[] matched;
+    private int frame = 0;
+
+    // statistics
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /*--------------------------------*/
+    /* RecognitionCache constructor   */
+    /*--------------------------------*/
+    public RecognitionCache(int capacity, int numberOfClasses) {
+        this.capacity = capacity;
+        this.numberOfClasses = numberOfClasses;
+        used = new boolean[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        w = new float[capacity];
+        h = new float[capacity];
+        votes = new float[capacity * numberOfClasses];
+        voteWeight = new float[capacity];
+        voteCount = new int[capacity];
+        lastSeen = new int[capacity];
+        lastVerified = new int[capacity];
+        verifiedArea = new float[capacity];
+        matched = new boolean[capacity];
+    }
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    public void setMinIou(float minIou) {
+        this.minIou = minIou;
+    }
+
+    public void setMaxAge(int maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public void setStability(int minVotes, float confidentShare) {
+        this.minVotes = minVotes;
+        this.confidentShare = confidentShare;
+    }
+
+    public void setReverify(int reverifyInterval, float maxScaleChange) {
+        this.reverifyInterval = reverifyInterval;
+        this.maxScaleChange = maxScaleChange;
+    }
+
+    public void setDecay(float decay) {
+        this.decay = decay;
+    }
+
+    /*------------------------------------------*/
+    /* New frame: forget signs not seen lately  */
+    /*------------------------------------------*/
+    public void beginFrame() {
+        frame++;
+        for (int e = 0; e < capacity; e++) {
+            matched[e] = false;
+            if (used[e] && frame - lastSeen[e] > maxAge) {
+                used[e] = false;
+            }
+        }
+    }
+
+    /*------------------------------------------------------*/
+    /* Entry of same sign (best IoU) or a new one           */
+    /*------------------------------------------------------*/
+    public int lookup(float boxX, float boxY, float boxW, float boxH) {
+        int best = -1;
+        float bestIou = minIou;
+        for (int e = 0; e < capacity; e++) {
+            if (!used[e] || matched[e]) {
+                continue;
+            }
+            float iou = NonMaxSuppression.iou(x[e], y[e], w[e], h[e], boxX, boxY, boxW, boxH);
+            if (iou >= bestIou) {
+                bestIou = iou;
+                best = e;
+            }
+        }
+
+        // new sign -> free entry or the one not seen for longest
+        if (best == -1) {
+            best = 0;
+            for (int e = 0; e < capacity; e++) {
+                if (!used[e]) {
+                    best = e;
+                    break;
+                }
+                if (!matched[e] && (matched[best] || lastSeen[e] < lastSeen[best])) {
+                    best = e;
+                }
+            }
+            used[best] = true;
+            voteWeight[best] = 0;
+            voteCount[best] = 0;
+            Arrays.fill(votes, best * numberOfClasses, (best + 1) * numberOfClasses, 0);
+        }
+
+        matched[best] = true;
+        lastSeen[best] = frame;
+        x[best] = boxX;
+        y[best] = boxY;
+        w[best] = boxW;
+        h[best] = boxH;
+        return best;
+    }
+
+    /*------------------------------------------------------*/
+    /* Recognition model must run again for this entry?     */
+    /*------------------------------------------------------*/
+    public boolean needsRecognition(int e) {
+        boolean needed = voteCount[e] < minVotes
+                || getClassScore(e) < confidentShare
+                || frame - lastVerified[e] >= reverifyInterval
+                || scaleChanged(e);
+        if (needed) {
+            missCount++;
+        }
+        else {
+            hitCount++;
+        }
+        return needed;
+    }
+
+    private boolean scaleChanged(int e) {
+        float area = w[e] * h[e];
+        float ratio = area > verifiedArea[e] ? area / verifiedArea[e] : verifiedArea[e] / area;
+        return !(ratio <= maxScaleChange); // also NaN / zero area
+    }
+
+    /*------------------------------------------------------*/
+    /* Accumulate class distribution of one recognition     */
+    /*------------------------------------------------------*/
+    public void vote(int e, FloatBuffer output, int offset, int length) {
+        int base = e * numberOfClasses;
+        int classes = Math.min(length, numberOfClasses);
+        for (int c = 0; c < classes; c++) {
+            votes[base + c] = decay * votes[base + c] + output.get(offset + c);
+        }
+        voteWeight[e] = decay * voteWeight[e] + 1;
+        voteCount[e]++;
+        lastVerified[e] = frame;
+        verifiedArea[e] = w[e] * h[e];
+    }
+
+    /*------------------------------*/
+    /* Voted result                 */
+    /*------------------------------*/
+    public int getClassId(int e) {
+        int base = e * numberOfClasses;
+        int best = 0;
+        for (int c = 1; c < numberOfClasses; c++) {
+            if (votes[base + c] > votes[base + best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // weighted mean probability of voted class
+    public float getClassScore(int e) {
+        if (voteWeight[e] == 0) {
+            return 0;
+        }
+        return votes[e * numberOfClasses + getClassId(e)] / voteWeight[e];
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        hitCount = 0;
+        missCount = 0;
+    }
+}
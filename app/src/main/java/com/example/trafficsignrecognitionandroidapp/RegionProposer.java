@@ -0,0 +1,230 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegionProposer {
+
+    // decision for one frame
+    public static final int SKIP = 0;
+    public static final int REGION = 1;
+    public static final int FULL_FRAME = 2;
+
+    // masks computed on downscaled frame
+    private static final int WORK_WIDTH = 160;
+
+    // sign colours in HSV (OpenCV hue 0..180), red wraps around 0
+    private static final Scalar RED_LOW_1 = new Scalar(0, 100, 60);
+    private static final Scalar RED_HIGH_1 = new Scalar(10, 255, 255);
+    private static final Scalar RED_LOW_2 = new Scalar(160, 100, 60);
+    private static final Scalar RED_HIGH_2 = new Scalar(180, 255, 255);
+    private static final Scalar BLUE_LOW = new Scalar(100, 120, 50);
+    private static final Scalar BLUE_HIGH = new Scalar(130, 255, 255);
+    private static final Scalar YELLOW_LOW = new Scalar(15, 100, 100);
+    private static final Scalar YELLOW_HIGH = new Scalar(35, 255, 255);
+
+    // shape tests on candidate contours
+    private static final double MIN_AREA = 12; // pixels of downscaled frame
+    private static final double MAX_ASPECT = 2.0;
+    private static final double MIN_FILL = 0.4; // contour area / bounding box area
+    private static final double MIN_CIRCULARITY = 0.65; // circles and octagons
+    private static final double POLYGON_EPSILON = 0.04; // of perimeter
+
+    // settings
+    private long fullFrameIntervalMs = 1000;
+    private float margin = 0.25F; // added around union of candidates
+    private float minRegion = 0.3F; // of frame short side, limits upscaling of small regions
+    private float maxRegion = 0.6F; // of frame area, larger regions run full frame
+
+    // preallocated images
+    private final Mat small = new Mat();
+    private final Mat rgb = new Mat();
+    private final Mat hsv = new Mat();
+    private final Mat mask = new Mat();
+    private final Mat colorMask = new Mat();
+    private final Mat hierarchy = new Mat();
+    private final Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(3, 3));
+    private final MatOfPoint2f curve = new MatOfPoint2f();
+    private final MatOfPoint2f approx = new MatOfPoint2f();
+    private final List<MatOfPoint> contours = new ArrayList<>();
+
+    // result
+    private final Rect region = new Rect();
+    private int candidateCount = 0;
+    private long lastFullFrameTime = 0;
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    public void setFullFrameInterval(long fullFrameIntervalMs) {
+        this.fullFrameIntervalMs = fullFrameIntervalMs;
+    }
+
+    public void setRegionSize(float margin, float minRegion, float maxRegion) {
+        this.margin = margin;
+        this.minRegion = minRegion;
+        this.maxRegion = maxRegion;
+    }
+
+    /*------------------------------------------------------*/
+    /* Decide what detection runs on for this RGBA frame    */
+    /*------------------------------------------------------*/
+    public int propose(Mat rgba) {
+        // full frame on timer -> signs without expected colour are still found
+        long now = System.currentTimeMillis();
+        if (now - lastFullFrameTime >= fullFrameIntervalMs) {
+            lastFullFrameTime = now;
+            setFullFrame(rgba);
+            return FULL_FRAME;
+        }
+
+        long startTime = LatencyMetrics.now();
+        boolean found = findCandidates(rgba);
+        LatencyMetrics.record(LatencyMetrics.Stage.REGION_PROPOSAL, startTime);
+
+        // nothing coloured like a sign -> no detection until timer
+        if (!found) {
+            return SKIP;
+        }
+
+        // region almost as large as frame costs same as full frame
+        if ((double) region.width * region.height > maxRegion * rgba.cols() * rgba.rows()) {
+            lastFullFrameTime = now;
+            setFullFrame(rgba);
+            return FULL_FRAME;
+        }
+        return REGION;
+    }
+
+    private boolean findCandidates(Mat rgba) {
+        // downscale, colour masks, remove speckles
+        int frameWidth = rgba.cols();
+        int frameHeight = rgba.rows();
+        double scale = (double) WORK_WIDTH / frameWidth;
+        Imgproc.resize(rgba, small, new Size(WORK_WIDTH, Math.round(frameHeight * scale)), 0, 0, Imgproc.INTER_AREA);
+        Imgproc.cvtColor(small, rgb, Imgproc.COLOR_RGBA2RGB);
+        Imgproc.cvtColor(rgb, hsv, Imgproc.COLOR_RGB2HSV);
+
+        Core.inRange(hsv, RED_LOW_1, RED_HIGH_1, mask);
+        Core.inRange(hsv, RED_LOW_2, RED_HIGH_2, colorMask);
+        Core.bitwise_or(mask, colorMask, mask);
+        Core.inRange(hsv, BLUE_LOW, BLUE_HIGH, colorMask);
+        Core.bitwise_or(mask, colorMask, mask);
+        Core.inRange(hsv, YELLOW_LOW, YELLOW_HIGH, colorMask);
+        Core.bitwise_or(mask, colorMask, mask);
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, kernel);
+
+        // outer contour of each blob (red rim -> whole sign)
+        Imgproc.findContours(mask, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        // union of blobs shaped like a sign
+        int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE, right = -1, bottom = -1;
+        candidateCount = 0;
+        for (int i = 0; i < contours.size(); i++) {
+            MatOfPoint contour = contours.get(i);
+            if (isSignShape(contour)) {
+                Rect box = Imgproc.boundingRect(contour);
+                left = Math.min(left, box.x);
+                top = Math.min(top, box.y);
+                right = Math.max(right, box.x + box.width);
+                bottom = Math.max(bottom, box.y + box.height);
+                candidateCount++;
+            }
+            contour.release();
+        }
+        contours.clear();
+
+        if (candidateCount == 0) {
+            return false;
+        }
+
+        // back to frame pixels, margin, square with minimum size, inside frame
+        double centerX = (left + right) / 2.0 / scale;
+        double centerY = (top + bottom) / 2.0 / scale;
+        double side = Math.max(right - left, bottom - top) / scale * (1 + 2 * margin);
+        side = Math.max(side, minRegion * Math.min(frameWidth, frameHeight));
+        int width = (int) Math.min(side, frameWidth);
+        int height = (int) Math.min(side, frameHeight);
+        region.x = (int) Math.max(0, Math.min(frameWidth - width, centerX - width / 2.0));
+        region.y = (int) Math.max(0, Math.min(frameHeight - height, centerY - height / 2.0));
+        region.width = width;
+        region.height = height;
+        return true;
+    }
+
+    private boolean isSignShape(MatOfPoint contour) {
+        double area = Imgproc.contourArea(contour);
+        if (area < MIN_AREA) {
+            return false;
+        }
+
+        // roughly square bounding box, mostly filled (circle 0.79, triangle and diamond 0.5)
+        Rect box = Imgproc.boundingRect(contour);
+        double aspect = (double) box.width / box.height;
+        if (aspect > MAX_ASPECT || aspect < 1 / MAX_ASPECT || area < MIN_FILL * box.width * box.height) {
+            return false;
+        }
+
+        // triangle / rectangle / diamond, or round (circle, octagon)
+        contour.convertTo(curve, CvType.CV_32FC2);
+        double perimeter = Imgproc.arcLength(curve, true);
+        Imgproc.approxPolyDP(curve, approx, POLYGON_EPSILON * perimeter, true);
+        long vertices = approx.total();
+        double circularity = 4 * Math.PI * area / (perimeter * perimeter);
+        return vertices == 3 || vertices == 4 || circularity >= MIN_CIRCULARITY;
+    }
+
+    private void setFullFrame(Mat rgba) {
+        region.x = 0;
+        region.y = 0;
+        region.width = rgba.cols();
+        region.height = rgba.rows();
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    // region of last frame in frame pixels (whole frame for FULL_FRAME)
+    public Rect getRegion() {
+        return region;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /*-------------------------------------------------------------------*/
+    /* Frame pixels -> normalized region of frame rotated 90 clockwise   */
+    /*-------------------------------------------------------------------*/
+    public static FrameTransform toRotatedRegion(Rect rect, int frameWidth, int frameHeight, FrameTransform out) {
+        return out.setRegion((float) (frameHeight - rect.y - rect.height) / frameHeight,
+                (float) rect.x / frameWidth,
+                (float) rect.height / frameHeight,
+                (float) rect.width / frameWidth);
+    }
+
+    /*------------------------------*/
+    /* Release native memory        */
+    /*------------------------------*/
+    public void release() {
+        small.release();
+        rgb.release();
+        hsv.release();
+        mask.release();
+        colorMask.release();
+        hierarchy.release();
+        kernel.release();
+        curve.release();
+        approx.release();
+    }
+}
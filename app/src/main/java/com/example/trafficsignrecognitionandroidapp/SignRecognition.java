@@ -2,81 +2,343 @@ package com.example.trafficsignrecognitionandroidapp;
 
 import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
-import android.graphics.Bitmap;
 import android.util.Log;
 
-import org.opencv.android.Utils;
 import org.opencv.core.Core;
-import org.opencv.core.CvType;
 import org.opencv.core.Mat;
-import org.opencv.core.Point;
 import org.opencv.core.Rect;
-import org.opencv.core.Scalar;
-import org.opencv.core.Size;
-import org.opencv.imgproc.Imgproc;
-import org.tensorflow.lite.Interpreter;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class SignRecognition {
     private String TAG = "ObjectDetection";
 
-    // interpreters
-    private Interpreter detectionInterpreter;
-    private Interpreter recognitionInterpreter;
+    // inference engines (TFLite or OpenCV DNN, chosen for each model in config)
+    private InferenceEngine detectionEngine;
+    private InferenceEngine recognitionEngine;
+
+    // drawing
+    private OverlayRenderer overlayRenderer;
+
+    // reusable input buffers
+    private final TensorBufferPool tensorBufferPool = new TensorBufferPool();
+
+    // results recycled between frames
+    private DetectionBatchPool detectionBatchPool;
+
+    // top candidates of detection output, suppression, then first numberOfDetection kept boxes
+    private DetectionDecoder detectionDecoder;
+    private NonMaxSuppression nonMaxSuppression;
+    private float iouThreshold = 0.45F;
+
+    // Mat preprocessing (created on first use, OpenCV must be loaded)
+    private MatPreprocessor detectionPreprocessor;
+    private MatPreprocessor recognitionPreprocessor;
+    private Mat matImgRotate;
+
+    // outputs bound once: flat native buffers, read by index (float views null for quantized outputs)
+    private ByteBuffer detectionOutputBuffer;
+    private FloatBuffer detectionOutput;
+    private int detectionRowLength;
+    private ByteBuffer recognitionOutputBuffer;
+    private FloatBuffer recognitionOutput;
+
+    // int8 / uint8 models: parameters read from tensors, null for float tensors
+    private Quantization detectionInputQuantization;
+    private Quantization detectionOutputQuantization;
+    private Quantization recognitionInputQuantization;
+    private Quantization recognitionOutputQuantization;
+    private boolean detectionQuantized;
+    private boolean recognitionQuantized;
+    private float[] recognitionRow;
+    private FloatBuffer recognitionRowView;
+
+    // batched recognition: input sized once for numberOfDetection crops (unused slots padded, their outputs ignored)
+    // or one call for each crop when model batch is fixed, output view of each crop, detection of each crop
+    private boolean batchedRecognition = true;
+    private ByteBuffer[] recognitionSlotOutputs;
+    private Rect[] cropRects;
+    private int[] cropIndices;
+
+    // recognition votes of each sign across camera frames, crops of stable signs are not classified again
+    private RecognitionCache recognitionCache;
+    private boolean recognitionCaching = true;
+    private int[] cropEntries;
+
+    // detection input -> rotated frame / image (letterbox, region), boxes are mapped back before results
+    private boolean letterbox = true;
+    private final FrameTransform frameTransform = new FrameTransform();
+
+    // tiled detection of large still images (created on first use, one engine for each core)
+    private ByteBuffer detectionModel;
+    private InterpreterTuner.Profile detectionProfile;
+    private int detectionOutputRows;
+    private TiledDetector tiledDetector;
+    private boolean tiledDetection = true;
 
     // data members
+    private final ModelConfig config;
     private List<String> labelList;
     private int pixelSize = 3; // rgb
-    private final boolean quantized = false;
-    private int threadsDetection = 2;
-    private int threadsRecognition = 1;
+    private int threadsDetection;
+    private int threadsRecognition;
     private float confidence = 0.5F;
     private int numberOfClasses;
     private int numberOfDetection = 10;
+    private int numberOfCandidates = 300; // before NMS, duplicates of large signs must not push out small ones
 
     // detection & recognition
-    private String detectionPathModel = "yolov5n.tflite";
-    private String recognitionPathModel = "nlcnn_model_99_64.tflite";
-    private String pathLabels = "labelmap.txt";
-    private int detectionModelInputSize = 640;
-    private int recognitionModelInputSize = 48;
+    private String detectionPathModel;
+    private String recognitionPathModel;
+    private String pathLabels;
+    private int detectionModelInputSize;
+    private int recognitionModelInputSize;
 
     /*------------------------------*/
     /* ObjectDetection constructor  */
     /*------------------------------*/
     SignRecognition(AssetManager assetManager) throws IOException {
-        // define GPU/CPU and number of threads
-        Interpreter.Options optionsDetection = new Interpreter.Options();
-        optionsDetection.setNumThreads(threadsDetection);
+        this(assetManager, ModelConfig.DEFAULT);
+    }
 
-        // load detection model
-        detectionInterpreter = new Interpreter(loadModelFile(assetManager, detectionPathModel), optionsDetection);
+    SignRecognition(AssetManager assetManager, ModelConfig config) throws IOException {
+        this(assetManager, config, null);
+    }
 
-        // define GPU/CPU and number of threads
-        Interpreter.Options optionsRecognition = new Interpreter.Options();
-        optionsRecognition.setNumThreads(threadsRecognition);
+    SignRecognition(AssetManager assetManager, ModelConfig config, InterpreterTuner tuner) throws IOException {
+        this(assetManager, config, tuner, null);
+    }
 
-        // load recognition model
-        recognitionInterpreter = new Interpreter(loadModelFile(assetManager, recognitionPathModel), optionsRecognition);
+    // tuner: TFLite options calibrated for this device (null -> configured thread counts)
+    // loader: recognition model prepared on it while detection model is prepared on caller (null -> one after other)
+    SignRecognition(AssetManager assetManager, ModelConfig config, InterpreterTuner tuner, Executor loader) throws IOException {
+        this(config);
+
+        // map, tune, compile and warm up both models in parallel
+        CompletableFuture<InferenceEngine> recognitionLoad = null;
+        if (loader != null) {
+            recognitionLoad = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loadEngine(assetManager, "recognition", recognitionPathModel, config.recognitionBackend, tuner, threadsRecognition);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, loader);
+        }
+        try {
+            detectionEngine = loadEngine(assetManager, "detection", detectionPathModel, config.detectionBackend, tuner, threadsDetection);
+            recognitionEngine = recognitionLoad != null ? recognitionLoad.join()
+                    : loadEngine(assetManager, "recognition", recognitionPathModel, config.recognitionBackend, tuner, threadsRecognition);
+        }
+        catch (CompletionException e) {
+            closeEngines();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            // other model still loading -> wait for it before closing
+            if (recognitionLoad != null) {
+                recognitionEngine = recognitionLoad.exceptionally(failure -> null).join();
+            }
+            closeEngines();
+            throw e;
+        }
 
         // load labels
         labelList = loadLabels(assetManager, pathLabels);
+        initPipeline();
+    }
 
+    // engines already created (other backends, local tests), both owned and closed by this object
+    SignRecognition(ModelConfig config, InferenceEngine detectionEngine, InferenceEngine recognitionEngine, List<String> labelList) {
+        this(config);
+        this.detectionEngine = detectionEngine;
+        this.recognitionEngine = recognitionEngine;
+        this.labelList = new ArrayList<>(labelList);
+        initPipeline();
+    }
+
+    private SignRecognition(ModelConfig config) {
+        // model configuration
+        this.config = config;
+        detectionPathModel = config.detectionPathModel;
+        recognitionPathModel = config.recognitionPathModel;
+        pathLabels = config.pathLabels;
+        detectionModelInputSize = config.detectionModelInputSize;
+        recognitionModelInputSize = config.recognitionModelInputSize;
+        threadsDetection = config.threadsDetection;
+        threadsRecognition = config.threadsRecognition;
+    }
+
+    /*-----------------------------------------------*/
+    /* Buffers and stages sized from loaded engines  */
+    /*-----------------------------------------------*/
+    private void initPipeline() {
         // number of classes
         numberOfClasses = labelList.size();
+
+        // single pass decoder for detection output, suppression over all its candidates
+        detectionDecoder = new DetectionDecoder(numberOfCandidates, confidence);
+        nonMaxSuppression = new NonMaxSuppression(numberOfCandidates, iouThreshold);
+
+        // pooled results shared by camera and pick paths
+        detectionBatchPool = new DetectionBatchPool(numberOfDetection);
+
+        // quantized models -> uint8 / int8 inputs filled from Mat, outputs dequantized when read
+        detectionInputQuantization = detectionEngine.getInputQuantization();
+        detectionOutputQuantization = detectionEngine.getOutputQuantization();
+        recognitionInputQuantization = recognitionEngine.getInputQuantization();
+        recognitionOutputQuantization = recognitionEngine.getOutputQuantization();
+        detectionQuantized = detectionInputQuantization != null;
+        recognitionQuantized = recognitionInputQuantization != null;
+
+        // detection output [1, rows, x y w h objectness classes...]
+        int[] detectionShape = detectionEngine.getOutputShape();
+        detectionOutputRows = detectionShape[1];
+        detectionRowLength = detectionShape[2];
+        int detectionBytes = detectionOutputQuantization != null ? 1 : 4;
+        detectionOutputBuffer = ByteBuffer.allocateDirect(detectionBytes * detectionShape[1] * detectionRowLength);
+        detectionOutputBuffer.order(ByteOrder.nativeOrder());
+        detectionOutput = detectionOutputQuantization != null ? null : detectionOutputBuffer.asFloatBuffer();
+
+        // recognition output [numberOfDetection, numberOfClasses], views sized for each batch
+        int classesBytes = (recognitionOutputQuantization != null ? 1 : 4) * numberOfClasses;
+        recognitionOutputBuffer = ByteBuffer.allocateDirect(numberOfDetection * classesBytes);
+        recognitionOutputBuffer.order(ByteOrder.nativeOrder());
+        recognitionOutput = recognitionOutputQuantization != null ? null : recognitionOutputBuffer.asFloatBuffer();
+        recognitionRow = new float[numberOfClasses];
+        recognitionRowView = FloatBuffer.wrap(recognitionRow);
+        recognitionSlotOutputs = new ByteBuffer[numberOfDetection];
+        for (int c = 0; c < numberOfDetection; c++) {
+            recognitionSlotOutputs[c] = MatPreprocessor.slice(recognitionOutputBuffer, c * classesBytes, classesBytes);
+        }
+        initRecognitionBatch();
+        cropRects = new Rect[numberOfDetection];
+        for (int c = 0; c < numberOfDetection; c++) {
+            cropRects[c] = new Rect();
+        }
+        cropIndices = new int[numberOfDetection];
+        cropEntries = new int[numberOfDetection];
+        recognitionCache = new RecognitionCache(2 * numberOfDetection, numberOfClasses);
+
+        // renderer of still images (drawn under this lock), camera view creates its own
+        overlayRenderer = new OverlayRenderer(labelList, confidence);
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public ModelConfig getConfig() {
+        return config;
+    }
+
+    public List<String> getLabelList() {
+        return labelList;
+    }
+
+    public OverlayRenderer getOverlayRenderer() {
+        return overlayRenderer;
+    }
+
+    // renderer for another drawing thread, released by caller
+    public OverlayRenderer createOverlayRenderer() {
+        return new OverlayRenderer(labelList, confidence);
+    }
+
+    public DetectionBatchPool getDetectionBatchPool() {
+        return detectionBatchPool;
+    }
+
+    public RecognitionCache getRecognitionCache() {
+        return recognitionCache;
+    }
+
+    /*------------------------------*/
+    /* Recognition cache            */
+    /*------------------------------*/
+    public synchronized void setRecognitionCaching(boolean recognitionCaching) {
+        this.recognitionCaching = recognitionCaching;
+        recognitionCache.clear();
+    }
+
+    // new camera session -> signs seen before are not in view anymore
+    public synchronized void clearRecognitionCache() {
+        recognitionCache.clear();
+    }
+
+    /*------------------------------*/
+    /* Release engines              */
+    /*------------------------------*/
+    public synchronized void close() {
+        closeEngines();
+        overlayRenderer.release();
+        if (detectionPreprocessor != null) {
+            detectionPreprocessor.release();
+            recognitionPreprocessor.release();
+            matImgRotate.release();
+            detectionPreprocessor = null;
+            recognitionPreprocessor = null;
+            matImgRotate = null;
+        }
+        if (tiledDetector != null) {
+            tiledDetector.close();
+            tiledDetector = null;
+        }
+        tensorBufferPool.clear();
+    }
+
+    /*------------------------------*/
+    /* Tiled detection              */
+    /*------------------------------*/
+    public synchronized void setTiledDetection(boolean tiledDetection) {
+        this.tiledDetection = tiledDetection;
+    }
+
+    private boolean useTiledDetection(Mat matImg) {
+        // image not much larger than model input -> single pass is enough (workers need mapped model of asset)
+        return tiledDetection && detectionModel != null && Math.max(matImg.cols(), matImg.rows()) > 3 * detectionModelInputSize / 2;
+    }
+
+    private TiledDetector getTiledDetector() {
+        if (tiledDetector == null) {
+            // one interpreter for each core, single threaded (tuned options otherwise), tiles spread across them
+            int workers = Runtime.getRuntime().availableProcessors();
+            tiledDetector = new TiledDetector(this::createDetectionEngine, workers, 1,
+                    detectionModelInputSize, detectionRowLength, detectionOutputRows, pixelSize,
+                    detectionInputQuantization, detectionOutputQuantization, numberOfCandidates, numberOfDetection, confidence);
+            tiledDetector.setLetterbox(letterbox);
+            Log.d(TAG, "getTiledDetector: " + tiledDetector.getNumberOfWorkers() + " workers");
+        }
+        return tiledDetector;
+    }
+
+    /*------------------------------------------*/
+    /* Create preprocessing on first frame      */
+    /*------------------------------------------*/
+    private void initPreprocessing() {
+        if (detectionPreprocessor == null) {
+            detectionPreprocessor = new MatPreprocessor(tensorBufferPool, detectionModelInputSize, pixelSize, detectionQuantized);
+            detectionPreprocessor.setInputQuantization(detectionInputQuantization);
+            detectionPreprocessor.setRecordLatency(true);
+            detectionPreprocessor.setLetterbox(letterbox);
+            recognitionPreprocessor = new MatPreprocessor(tensorBufferPool, numberOfDetection, recognitionModelInputSize, pixelSize, recognitionQuantized);
+            recognitionPreprocessor.setInputQuantization(recognitionInputQuantization);
+            matImgRotate = new Mat();
+        }
     }
 
     /*------------------------------*/
@@ -111,463 +373,414 @@ public class SignRecognition {
         return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, length);
     }
 
-    /*------------------------------*/
-    /* Draw boxes after detection   */
-    /*------------------------------*/
-    public void drawBoxes(Map<Integer, Object> recognitionOutputMap, Mat matImg, List<String> listOfResults, List<Integer> displayedSignClass, boolean realTime, String FPS) {
-        // check input data
-        if(recognitionOutputMap.size() == 0 || matImg.empty()) {
-            return;
+    /*----------------------------------------------------*/
+    /* Map model, create engine, warm it up               */
+    /*----------------------------------------------------*/
+    // called on loader threads -> writes only fields of its own model
+    private InferenceEngine loadEngine(AssetManager assetManager, String name, String modelPath, InferenceEngine.Backend backend,
+                                       InterpreterTuner tuner, int threads) throws IOException {
+        long startTime = System.currentTimeMillis();
+        boolean detection = name.equals("detection");
+        ByteBuffer model = loadModelFile(assetManager, modelPath);
+
+        InferenceEngine engine;
+        InterpreterTuner.Profile profile = new InterpreterTuner.Profile(threads, true, false);
+        if (backend == InferenceEngine.Backend.OPENCV_DNN) {
+            // ONNX export, float input of one image
+            int inputSize = detection ? detectionModelInputSize : recognitionModelInputSize;
+            engine = new OpenCvDnnEngine(model, new int[] {1, inputSize, inputSize, pixelSize});
+        }
+        else {
+            // define number of threads and execution options (stored calibration or configured)
+            if (tuner != null) {
+                profile = tuner.tune(name, model, profile);
+            }
+            threads = profile.getThreads();
+            engine = new TfliteEngine(model, profile.toOptions());
+        }
+        if (detection) {
+            detectionModel = model;
+            detectionProfile = profile;
+            threadsDetection = threads;
+        }
+        else {
+            threadsRecognition = threads;
         }
 
-        // rotate image if real time images from camera
-        Mat matImgRotate = matImg;
+        // first run prepares kernels and arena -> not paid by first camera frame
+        ByteBuffer input = ByteBuffer.allocateDirect(engine.getInputBytes());
+        input.order(ByteOrder.nativeOrder());
+        ByteBuffer output = ByteBuffer.allocateDirect(engine.getOutputBytes());
+        output.order(ByteOrder.nativeOrder());
+        engine.run(input, output);
 
-        // rotate matImg
-        if (realTime) {
-            Core.flip(matImg.t(), matImgRotate, 1);
-        }
+        Log.d(TAG, "loadEngine: " + name + " (" + backend + ") ready in " + (System.currentTimeMillis() - startTime) + " ms");
+        return engine;
+    }
 
-        // initializations
-        int frameWidth = matImgRotate.width();
-        int frameHeight = matImgRotate.height();
-        float scoreValue;
-        String displayedText, classText, accText;
-        List<String> displayedTextArray = new ArrayList<>();
+    // engine for tiled detection workers, same model, backend and tuned options as detection engine
+    private InferenceEngine createDetectionEngine(int threads) {
+        if (config.detectionBackend == InferenceEngine.Backend.OPENCV_DNN) {
+            return new OpenCvDnnEngine(detectionModel, new int[] {1, detectionModelInputSize, detectionModelInputSize, pixelSize});
+        }
+        return new TfliteEngine(detectionModel, detectionProfile.withThreads(threads).toOptions());
+    }
 
-        // detection latency
-        int latency = 0;
-        if(recognitionOutputMap.size() != 0) {
-            latency = (int) recognitionOutputMap.get(0);
+    private void closeEngines() {
+        if (detectionEngine != null) {
+            detectionEngine.close();
+            detectionEngine = null;
         }
+        if (recognitionEngine != null) {
+            recognitionEngine.close();
+            recognitionEngine = null;
+        }
+    }
 
-        // for each recognition, draw result
-        for(int i = 1; i < recognitionOutputMap.size(); i ++) {
-            float[] res = (float[]) recognitionOutputMap.get(i);
-            scoreValue = res[0];
-            latency += res[7];
+    /*------------------------------------------------------------*/
+    /* Detection, boxes kept after suppression (no Mat, no crop)  */
+    /*------------------------------------------------------------*/
+    // input: detection input prepared from inputWidth x inputHeight image, boxes added to batch mapped by toFrame
+    // returns number of boxes to recognize: crop in input pixels, batch index and cache entry of each (cropRects, cropIndices, cropEntries)
+    int detectBoxes(ByteBuffer input, int inputWidth, int inputHeight, DetectionBatch batch, RecognitionCache cache, FrameTransform toFrame) {
+        ByteBuffer detection = detection(input, batch);
+
+        // get first N results, best first
+        long stageStart = LatencyMetrics.now();
+        int numberOfResults = detectionOutputQuantization != null
+                ? detectionDecoder.decode(detection, detectionRowLength, detectionOutputQuantization)
+                : detectionDecoder.decode(detectionOutput, detectionRowLength);
+        stageStart = LatencyMetrics.record(LatencyMetrics.Stage.DECODE, stageStart);
+
+        // remove overlayed detections before cropping (IoU based)
+        int numberOfKept = nonMaxSuppression.apply(detectionDecoder.getResult(), detectionDecoder.getMaxDetections(), null, numberOfResults);
+        LatencyMetrics.record(LatencyMetrics.Stage.NMS, stageStart);
+
+        // frames since last visit of each cached sign
+        if (cache != null) {
+            cache.beginFrame();
+        }
 
+        // for each detection box (best first, up to numberOfDetection), reuse voted class of stable sign or keep its crop for recognition batch
+        int numberOfCrops = 0;
+        for (int k = 0; k < numberOfKept && batch.getCount() < numberOfDetection; k++) {
+            int d = nonMaxSuppression.getKept(k);
+            float x = detectionDecoder.get(DetectionDecoder.X, d);
+            float y = detectionDecoder.get(DetectionDecoder.Y, d);
+            float w = detectionDecoder.get(DetectionDecoder.W, d);
+            float h = detectionDecoder.get(DetectionDecoder.H, d);
+            float scoreValue = detectionDecoder.get(DetectionDecoder.SCORE, d);
             if (scoreValue > confidence) {
-                // draw rectangle in Original frame
-                Imgproc.rectangle(matImgRotate,
-                        new Point((res[1] * frameWidth - res[3] * frameWidth / 2), (res[2] * frameHeight - res[4] * frameHeight / 2)),
-                        new Point((res[1] * frameWidth + res[3] * frameWidth / 2), (res[2] * frameHeight + res[4] * frameHeight / 2)),
-                        new Scalar(250, 153, 28, 255), 2);
-
-                // set class and accuracy as text
-                classText = labelList.get((int) res[6]);
-                accText = "(" + String.format("%.2f", res[5] * 100) + "%)";
-                displayedText =  classText + " " + accText;
-                displayedTextArray.add(displayedText);
-                displayedSignClass.add(0, (int) res[6]);
-
-                // write text on frame
-                Imgproc.putText(matImgRotate,
-                        classText,
-                        new Point(res[1] * frameWidth - res[3] * frameWidth / 2, res[2] * frameHeight - res[4] * frameHeight / 2 - 26),
-                        1, 1, new Scalar(28, 118, 143, 255), 2);
-
-                Imgproc.putText(matImgRotate,
-                        accText,
-                        new Point(res[1] * frameWidth - res[3] * frameWidth / 2, res[2] * frameHeight - res[4] * frameHeight / 2 - 6),
-                        1, 1, new Scalar(28, 118, 143, 255), 2);
+                // get cropped image coordinates
+                int croppedX = (int) (x * inputWidth - (w * inputWidth) / 2);
+                int croppedY = (int) (y * inputHeight - (h * inputHeight) / 2);
+                int croppedW = (int) (w * inputWidth);
+                int croppedH = (int) (h * inputHeight);
+
+                if (croppedX > 0 && croppedY > 0 && croppedW > 0 && croppedH > 0) {
+                    // box in whole rotated frame / image (crop is taken in model input coordinates)
+                    float frameX = toFrame.mapX(x, y);
+                    float frameY = toFrame.mapY(x, y);
+                    float frameW = toFrame.mapW(w, h);
+                    float frameH = toFrame.mapH(w, h);
+                    int i = batch.add(frameX, frameY, frameW, frameH, scoreValue);
+                    int entry = cache != null ? cache.lookup(frameX, frameY, frameW, frameH) : -1;
+                    if (entry >= 0 && !cache.needsRecognition(entry)) {
+                        // same sign, confident and stable vote -> no crop, no interpreter
+                        batch.setClass(i, cache.getClassId(entry), cache.getClassScore(entry));
+                    }
+                    else {
+                        Rect rect = cropRects[numberOfCrops];
+                        rect.x = croppedX;
+                        rect.y = croppedY;
+                        rect.width = croppedW;
+                        rect.height = croppedH;
+                        cropIndices[numberOfCrops] = i;
+                        cropEntries[numberOfCrops] = entry;
+                        numberOfCrops++;
+                    }
                 }
             }
+        }
+        return numberOfCrops;
+    }
 
-        // rotate image if real time images from camera
-        if (realTime) {
-            Core.flip(matImgRotate.t(), matImg, 0);
+    /*----------------------------------------------------*/
+    /* Crops of detected boxes -> recognition batch       */
+    /*----------------------------------------------------*/
+    private DetectionBatch recognition(Mat resizedDetectedMatImgRotate, int numberOfCrops, DetectionBatch batch, RecognitionCache cache) {
+        long stageStart = LatencyMetrics.now();
+
+        // resize and normalize each crop into its batch slot (image already resized to detection input by preprocessing)
+        for (int c = 0; c < numberOfCrops; c++) {
+            Mat croppedImg = resizedDetectedMatImgRotate.submat(cropRects[c]);
+            recognitionPreprocessor.toTensor(croppedImg, c);
+            croppedImg.release();
         }
 
-        // get list of results
-        getListOfResults(listOfResults, displayedTextArray, latency, realTime, FPS);
+        stageStart = LatencyMetrics.record(LatencyMetrics.Stage.CROP, stageStart);
 
-        // log total latency
-        Log.d(TAG, "drawBoxes: Total latency: " + latency + " ms");
+        // return results
+        return classifyCrops(numberOfCrops, batch, cache, stageStart);
     }
 
-    private Map<Integer, Object> recognition(Map<Integer, Object> outputMap, Mat detectedImg, int latencyStorage) {
-        Map<Integer, Object> recognitionOutputMap = new HashMap<>();
-
-        // check input data
-        if(detectedImg == null || detectedImg.empty() || outputMap.size() == 0) {
-            return recognitionOutputMap;
+    /*-------------------------------------------------*/
+    /* Recognition of boxes found on full size image   */
+    /*-------------------------------------------------*/
+    private DetectionBatch recognitionFullImage(Mat matImg, DetectionBatch batch) {
+        int imageWidth = matImg.width();
+        int imageHeight = matImg.height();
+        long stageStart = LatencyMetrics.now();
+
+        // crops at full resolution, distant signs keep their pixels
+        int numberOfCrops = 0;
+        for (int i = 0; i < batch.getCount(); i++) {
+            int croppedX = (int) (batch.x[i] * imageWidth - (batch.w[i] * imageWidth) / 2);
+            int croppedY = (int) (batch.y[i] * imageHeight - (batch.h[i] * imageHeight) / 2);
+            int croppedW = (int) (batch.w[i] * imageWidth);
+            int croppedH = (int) (batch.h[i] * imageHeight);
+            if (croppedX > 0 && croppedY > 0 && croppedW > 0 && croppedH > 0
+                    && croppedX + croppedW <= imageWidth && croppedY + croppedH <= imageHeight) {
+                Mat croppedImg = matImg.submat(new Rect(croppedX, croppedY, croppedW, croppedH));
+                recognitionPreprocessor.toTensor(croppedImg, numberOfCrops);
+                croppedImg.release();
+                cropIndices[numberOfCrops] = i;
+                cropEntries[numberOfCrops] = -1;
+                numberOfCrops++;
+            }
         }
 
-        // resize detectedMatImgRotate
-        Mat resizedDetectedMatImgRotate = new Mat(detectionModelInputSize, detectionModelInputSize, CvType.CV_8UC4);
-        Imgproc.resize(detectedImg, resizedDetectedMatImgRotate, new Size(detectionModelInputSize, detectionModelInputSize), Imgproc.INTER_AREA);
+        stageStart = LatencyMetrics.record(LatencyMetrics.Stage.CROP, stageStart);
+        return classifyCrops(numberOfCrops, batch, null, stageStart);
+    }
 
-        // initializations
-        int detectedWidth = resizedDetectedMatImgRotate.width();
-        int detectedHeight = resizedDetectedMatImgRotate.height();
-        float scoreValue;
-        float[] recognition;
-        int detectionLatency;
-        List<float[]> showedResults = new ArrayList<>();
-        int croppedX, croppedY, croppedW, croppedH;
+    /*------------------------------------------------------*/
+    /* Recognize prepared crops, set class of their boxes   */
+    /*------------------------------------------------------*/
+    private DetectionBatch classifyCrops(int numberOfCrops, DetectionBatch batch, RecognitionCache cache, long stageStart) {
+        // recognize all traffic signs with one interpreter call
+        if (numberOfCrops > 0) {
+            recognitionBatch(numberOfCrops);
+            long stopTime = LatencyMetrics.record(LatencyMetrics.Stage.RECOGNITION_INVOKE, stageStart);
+            batch.recognitionLatency = (int) ((stopTime - stageStart) / 1000000);
+
+            // for each recognized crop, set class and accuracy (voted over frames if cached)
+            for (int c = 0; c < numberOfCrops; c++) {
+                int offset = c * numberOfClasses;
+                int entry = cropEntries[c];
+                if (entry >= 0) {
+                    // votes need whole distribution -> dequantize row of this crop
+                    FloatBuffer scores = recognitionOutput;
+                    if (recognitionOutputQuantization != null) {
+                        recognitionOutputQuantization.dequantize(recognitionOutputBuffer, offset, recognitionRow, numberOfClasses);
+                        scores = recognitionRowView;
+                        offset = 0;
+                    }
+                    cache.vote(entry, scores, offset, numberOfClasses);
+                    batch.setClass(cropIndices[c], cache.getClassId(entry), cache.getClassScore(entry));
+                }
+                else if (recognitionOutputQuantization != null) {
+                    // argmax on raw values, only winner dequantized
+                    int predClass = DetectionDecoder.argMax(recognitionOutputBuffer, offset, numberOfClasses, recognitionOutputQuantization);
+                    batch.setClass(cropIndices[c], predClass, recognitionOutputQuantization.dequantize(recognitionOutputBuffer, offset + predClass));
+                }
+                else {
+                    int predClass = DetectionDecoder.argMax(recognitionOutput, offset, numberOfClasses);
+                    batch.setClass(cropIndices[c], predClass, recognitionOutput.get(offset + predClass));
+                }
+            }
+        }
+        return batch;
+    }
 
-        // get detection latency
-        if (latencyStorage != 0) {
-            detectionLatency = latencyStorage;
+    /*------------------------------------------------*/
+    /* Size recognition input once for all crops      */
+    /*------------------------------------------------*/
+    private void initRecognitionBatch() {
+        int modelBatch = recognitionEngine.getInputShape()[0];
+        if (modelBatch == numberOfDetection) {
+            batchedRecognition = true;
+        }
+        else if (recognitionEngine.supportsBatchResize()) {
+            // tensors allocated once here, warm-up run pays it instead of first frame
+            recognitionEngine.resizeInput(new int[] {numberOfDetection, recognitionModelInputSize, recognitionModelInputSize, pixelSize});
+            ByteBuffer input = ByteBuffer.allocateDirect(recognitionEngine.getInputBytes());
+            input.order(ByteOrder.nativeOrder());
+            recognitionOutputBuffer.rewind();
+            recognitionEngine.run(input, recognitionOutputBuffer);
+            batchedRecognition = true;
         }
         else {
-            detectionLatency = (int) Objects.requireNonNull(outputMap.get(1));
+            // model with fixed batch size -> one call for each crop
+            Log.w(TAG, "initRecognitionBatch: Batched recognition not supported, batch " + modelBatch);
+            batchedRecognition = false;
         }
-        recognitionOutputMap.put(0, detectionLatency);
-
-        // get first N results
-        float[][] result = getFirstNResults((float[][]) Array.get(Objects.requireNonNull(outputMap.get(0)), 0));
-
-        // for each detection box, make recognition
-        int i = 1;
-        for (float[] res : result) {
-            float[] recognitionResult = new float[8];
-            scoreValue = res[0];
-            if (scoreValue > confidence) {
+    }
 
-                // check if a detection overlay showed detections
-                if (!checkOverlayedBoxes(showedResults, res, detectedWidth, detectedHeight)) {
-
-                    // get cropped image coordinates
-                    croppedX = (int) (res[1] * detectedWidth - (res[3] * detectedWidth) / 2);
-                    croppedY = (int) (res[2] * detectedHeight - (res[4] * detectedHeight) / 2);
-                    croppedW = (int) (res[3] * detectedWidth);
-                    croppedH = (int) (res[4] * detectedHeight);
-
-                    if(croppedX > 0 && croppedY > 0 && croppedW > 0 && croppedH > 0 && !resizedDetectedMatImgRotate.empty()) {
-                        // crop image
-                        Rect rect = new Rect(croppedX, croppedY, croppedW, croppedH);
-                        Mat croppedImg = resizedDetectedMatImgRotate.submat(rect);
-
-//                        // save in storage
-//                        Bitmap bitmap = Bitmap.createBitmap(croppedImg.cols(), croppedImg.rows(), Bitmap.Config.ARGB_8888);
-//                        Utils.matToBitmap(croppedImg, bitmap);
-////                        Bitmap bitmapDetected = Bitmap.createBitmap(resizedDetectedMatImgRotate.cols(), resizedDetectedMatImgRotate.rows(), Bitmap.Config.ARGB_8888);
-////                        Utils.matToBitmap(resizedDetectedMatImgRotate, bitmapDetected);
-//                        try {
-//                            FileOutputStream out = new FileOutputStream(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS) + "/test" + ((int) (Math.random()*(10 - 1))) + 1 + ".png");
-//                            bitmap.compress(Bitmap.CompressFormat.PNG, 90, out);
-//                            out.close();
-//
-////                            FileOutputStream out1 = new FileOutputStream(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS) + "/test-detected.png");
-////                            bitmapDetected.compress(Bitmap.CompressFormat.PNG, 90, out1);
-////                            out1.close();
-//                        }
-//                        catch (Exception e) {
-//                            e.printStackTrace();
-//                        }
-
-                        if (croppedImg.rows() > 0 && croppedImg.cols() > 0) {
-                            // make recognition traffic sign
-                            recognition = recognitionImage(croppedImg);
-
-                            // add this result to showed results (remove overlayed detections)
-                            showedResults.add(res);
-
-                            // recognitionResult
-                            recognitionResult[0] = res[0]; // detection accuracy
-                            recognitionResult[1] = res[1]; // x
-                            recognitionResult[2] = res[2]; // y
-                            recognitionResult[3] = res[3]; // w
-                            recognitionResult[4] = res[4]; // h
-                            recognitionResult[5] = recognition[0]; // class
-                            recognitionResult[6] = recognition[1]; // recognition accuracy
-                            recognitionResult[7] = recognition[2]; // recognition latency
-                            recognitionOutputMap.put(i, recognitionResult);
-                            i++;
-                        }
-                    }
-                }
-            }
+    /*------------------------------------------*/
+    /* Traffic sign recognition, batch of crops */
+    /*------------------------------------------*/
+    private void recognitionBatch(int numberOfCrops) {
+        if (batchedRecognition) {
+            // same shape every frame: slots after numberOfCrops hold older crops, their rows are not read
+            recognitionOutputBuffer.rewind();
+            recognitionEngine.run(recognitionPreprocessor.getBatch(numberOfDetection), recognitionOutputBuffer);
+            return;
         }
 
-        // return results
-        return recognitionOutputMap;
+        // one crop for each call, written into its row of same output
+        for (int c = 0; c < numberOfCrops; c++) {
+            ByteBuffer output = recognitionSlotOutputs[c];
+            output.rewind();
+            recognitionEngine.run(recognitionPreprocessor.getSlot(c), output);
+        }
     }
 
     /*------------------------------*/
-    /* Traffic sign recognition     */
+    /* Run detection model          */
     /*------------------------------*/
-    private float[] recognitionImage(Mat matImg) {
-        float[] result = new float[3];
-
-        // convert to bitmap
-        Bitmap bitmap = Bitmap.createBitmap(matImg.cols(), matImg.rows(), Bitmap.Config.ARGB_8888);
-        Utils.matToBitmap(matImg, bitmap);
-
-        // scale to input size of model
-        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, recognitionModelInputSize, recognitionModelInputSize, false);
-
-        // convert bitmap to bytebuffer -> input
-        ByteBuffer byteBuffer = convertBitmapToByteBuffer(scaledBitmap, recognitionModelInputSize);
-        Object[] input = new Object[1];
-        input[0] = byteBuffer;
-
-        // define output
-        Map<Integer, Object> outputMap = new HashMap<>();
-        outputMap.put(0, new float[1][numberOfClasses]);
+    private ByteBuffer detection(ByteBuffer byteBuffer, DetectionBatch batch) {
+        // output copied into buffer bound once, no arrays for each frame
+        detectionOutputBuffer.rewind();
 
         // measure latency
-        int startTime = (int) System.currentTimeMillis();
+        long startTime = LatencyMetrics.now();
 
-        // make recognition
-        recognitionInterpreter.runForMultipleInputsOutputs(input, outputMap);
+        // prediction
+        detectionEngine.run(byteBuffer, detectionOutputBuffer);
 
         // get latency
-        int stopTime = (int) System.currentTimeMillis();
-
-        // get results
-        float[] accAndClass = getAccuracyAndClassRecognition((float[]) Array.get(Objects.requireNonNull(outputMap.get(0)), 0));
-        result[0] = accAndClass[0]; // set accuracy
-        result[1] = accAndClass[1]; // set class
-        result[2] = stopTime - startTime;
+        long stopTime = LatencyMetrics.record(LatencyMetrics.Stage.DETECTION_INVOKE, startTime);
+        batch.detectionLatency = (int) ((stopTime - startTime) / 1000000);
 
-        // return results
-        return result;
+        return detectionOutputBuffer;
     }
 
     /*-----------------------------*/
     /* Frame processing real time  */
     /*-----------------------------*/
-    public Map<Integer, Object> detectionFrame(Mat matImg) {
-        // output
-        Map<Integer, Object> outputMap = new HashMap<>();
-
-        // check if empty image
-        if(matImg == null || matImg.empty()) {
-            return recognition(outputMap, matImg, 0);
+    public synchronized DetectionBatch detectionFrame(Mat matImg, DetectionBatch batch) {
+        // check if empty image or engine already closed
+        if(matImg == null || matImg.empty() || detectionEngine == null) {
+            batch.clear();
+            return batch;
         }
+        initPreprocessing();
 
-        // rotate image
-        Mat matImgRotate = new Mat();
-        Mat a = matImg.t();
-        Core.flip(a, matImgRotate, 1);
-        a.release();
-
-        // convert to bitmap
-        Bitmap bitmap;
-        bitmap = Bitmap.createBitmap(matImgRotate.cols(), matImgRotate.rows(), Bitmap.Config.ARGB_8888);
-        Utils.matToBitmap(matImgRotate, bitmap);
-
-        // scale to input size of model
-        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, detectionModelInputSize, detectionModelInputSize, false);
-
-        // convert bitmap to bytebuffer -> input
-        ByteBuffer byteBuffer = convertBitmapToByteBuffer(scaledBitmap, detectionModelInputSize);
-        Object[] input = new Object[1];
-        input[0] = byteBuffer;
-
-        // output
-        outputMap.put(0, new float[1][25200][6]);
-
-        // measure latency
-        int startTime = (int) System.currentTimeMillis();
-
-        // prediction
-        detectionInterpreter.runForMultipleInputsOutputs(input, outputMap);
-
-        // get latency
-        int stopTime = (int) System.currentTimeMillis();
-        outputMap.put(1, stopTime - startTime);
+        // rotate, resize and normalize into model input
+        preprocessFrame(matImg, matImgRotate, detectionPreprocessor);
 
         // return result for drawing
-        return recognition(outputMap, matImgRotate, 0);
+        return inferFrame(detectionPreprocessor, batch);
     }
 
-    /*------------------------------*/
-    /* Recognize photo from storage */
-    /*------------------------------*/
-    public Mat detectionImage(Mat matImg, List<String> listOfResults, List<Integer> displayedSignClass) {
-        // convert to bitmap
-        Bitmap bitmap;
-        bitmap = Bitmap.createBitmap(matImg.cols(), matImg.rows(), Bitmap.Config.ARGB_8888);
-        Utils.matToBitmap(matImg, bitmap);
-
-        // scale to input size of model
-        Bitmap scaledBitmap = Bitmap.createScaledBitmap(bitmap, detectionModelInputSize, detectionModelInputSize, false);
-
-        // convert bitmap to bytebuffer -> input
-        ByteBuffer byteBuffer = convertBitmapToByteBuffer(scaledBitmap, detectionModelInputSize);
-        Object[] input = new Object[1];
-        input[0] = byteBuffer;
-
-        // define output
-        Map<Integer, Object> outputMap = new HashMap<>();
-        outputMap.put(0, new float[1][25200][6]);
-
-        // measure latency
-        int startTime = (int) System.currentTimeMillis();
-
-        // detection
-        detectionInterpreter.runForMultipleInputsOutputs(input, outputMap);
+    /*--------------------------------------------------*/
+    /* Detection preprocessor with its own input buffer */
+    /*--------------------------------------------------*/
+    public MatPreprocessor createFramePreprocessor(int copy) {
+        MatPreprocessor preprocessor = new MatPreprocessor(tensorBufferPool.acquire(1, detectionModelInputSize, pixelSize, detectionQuantized, copy + 1),
+                1, detectionModelInputSize, detectionQuantized);
+        preprocessor.setInputQuantization(detectionInputQuantization);
+        preprocessor.setRecordLatency(true);
+        preprocessor.setLetterbox(letterbox);
+        return preprocessor;
+    }
 
-        // get latency
-        int stopTime = (int) System.currentTimeMillis();
+    /*---------------------------------------------------------------*/
+    /* Pipeline stage 1: camera frame -> model input (no engine lock) */
+    /*---------------------------------------------------------------*/
+    public void preprocessFrame(Mat matImg, Mat matImgRotate, MatPreprocessor preprocessor) {
+        // rotate image into preallocated Mat
+        long startTime = LatencyMetrics.now();
+        Core.rotate(matImg, matImgRotate, Core.ROTATE_90_CLOCKWISE);
+        LatencyMetrics.record(LatencyMetrics.Stage.ROTATE, startTime);
+
+        // resize and normalize straight into model input (timed inside)
+        preprocessor.toTensor(matImgRotate);
+    }
 
-        // make recognition
-        Map<Integer, Object> recognitionOutputMap = recognition(outputMap, matImg, stopTime - startTime);
+    // camera YUV frame: rotation, resize and normalization fused, no RGBA frame (timed inside)
+    public void preprocessFrame(byte[] yuv, int width, int height, boolean nv21, MatPreprocessor preprocessor) {
+        preprocessor.toTensor(yuv, width, height, nv21);
+    }
 
-        // draw boxes and return modified image
-        drawBoxes(recognitionOutputMap, matImg, listOfResults, displayedSignClass, false, "0");
-        return matImg;
+    /*---------------------------------------------------------------*/
+    /* Pipeline stage 2: detection + recognition on prepared input   */
+    /*---------------------------------------------------------------*/
+    public synchronized DetectionBatch inferFrame(MatPreprocessor preprocessor, DetectionBatch batch) {
+        return inferFrame(preprocessor, null, batch);
     }
 
-    /*-----------------------------------------------------*/
-    /* Convert bitmap to bytes for input neuronal network  */
-    /*-----------------------------------------------------*/
-    private ByteBuffer convertBitmapToByteBuffer(Bitmap bitmap, int inputSize) {
-        ByteBuffer byteBuffer;
+    // region: part of rotated frame the input was prepared from, null for whole frame
+    public synchronized DetectionBatch inferFrame(MatPreprocessor preprocessor, FrameTransform region, DetectionBatch batch) {
+        batch.clear();
+
+        // check if engine already closed
+        if (detectionEngine == null) {
+            return batch;
+        }
+        initPreprocessing();
 
-        // model input
-        if (quantized) {
-            byteBuffer = ByteBuffer.allocateDirect(inputSize * inputSize * pixelSize);
+        // crops are taken from resized image of same preprocessor, consecutive frames share recognition votes
+        if (region != null) {
+            frameTransform.set(region);
         }
         else {
-            byteBuffer = ByteBuffer.allocateDirect(4 * inputSize * inputSize * pixelSize);
-        }
-
-        byteBuffer.order(ByteOrder.nativeOrder());
-        int[] intValues = new int[inputSize * inputSize];
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
-        int pixel = 0;
-        for (int i = 0; i < inputSize; ++i) {
-            for (int j = 0; j < inputSize; ++j) {
-                int val = intValues[pixel++];
-                if (quantized) {
-                    byteBuffer.put((byte) ((val >> 16) & 0xFF));
-                    byteBuffer.put((byte) ((val >> 8) & 0xFF));
-                    byteBuffer.put((byte) (val & 0xFF));
-                } else {
-                    byteBuffer.putFloat((((val >> 16) & 0xFF)) / 255.0f);
-                    byteBuffer.putFloat((((val >> 8) & 0xFF)) / 255.0f);
-                    byteBuffer.putFloat((((val) & 0xFF)) / 255.0f);
-                }
-            }
+            frameTransform.setIdentity();
         }
+        frameTransform.concat(preprocessor.getTransform());
+        RecognitionCache cache = recognitionCaching ? recognitionCache : null;
+        Mat resized = preprocessor.getResized();
 
-        return byteBuffer;
+        // prediction
+        int numberOfCrops = detectBoxes(preprocessor.getBatch(1), resized.width(), resized.height(), batch, cache, frameTransform);
+        return recognition(resized, numberOfCrops, batch, cache);
     }
 
-    /*------------------------*/
-    /* Get first N detection  */
-    /*------------------------*/
-    private float[][] getFirstNResults(float[][] detection) {
-        int index;
-        float[][] result = new float[numberOfDetection][5];
-        float[] probMax = new float[numberOfDetection];
-
-        for (int i = 0; i < numberOfDetection; i++) {
-            index = -1;
-            for (int j = 0; j < detection.length; j++) {
-                if (
-                        probMax[i] < detection[j][4] &&
-                                !check(probMax, detection[j][4]) &&
-                                detection[j][4] >= confidence
-                ) {
-                    index = j;
-                    probMax[i] = detection[j][4];
-                }
-            }
-
-            if (index != -1) {
-                result[i][0] = probMax[i];
-                result[i][1] = detection[index][0];
-                result[i][2] = detection[index][1];
-                result[i][3] = detection[index][2];
-                result[i][4] = detection[index][3];
-            }
-
+    /*------------------------------*/
+    /* Recognize photo from storage */
+    /*------------------------------*/
+    public synchronized Mat detectionImage(Mat matImg, List<String> listOfResults, List<Integer> displayedSignClass) {
+        // check if engine already closed
+        if (detectionEngine == null) {
+            return matImg;
         }
 
-        return result;
-    }
+        // detection & recognition
+        DetectionBatch batch = detectionImage(matImg, detectionBatchPool.acquire());
 
-    /*----------------------------------*/
-    /* Check if a value exist in array  */
-    /*----------------------------------*/
-    private boolean check(float[] arr, float toCheckValue) {
-        // check if the specified element
-        // is present in the array or not
-        // using Linear Search method
-        boolean test = false;
-        for (float element : arr) {
-            if (element == toCheckValue) {
-                test = true;
-                break;
-            }
-        }
-        return test;
+        // draw boxes and return modified image
+        overlayRenderer.drawBoxes(batch, matImg, listOfResults, displayedSignClass, false, null, "0");
+        batch.recycle();
+        return matImg;
     }
 
-    /*-------------------------------*/
-    /* Get largest index from array  */
-    /*-------------------------------*/
-    private float[] getAccuracyAndClassRecognition(float[] array) {
-        float[] result = new float[2];
-        if (array == null || array.length == 0) return result; // null or empty
+    /*----------------------------------------------------------*/
+    /* Recognize still image into batch (photos, batch inputs)  */
+    /*----------------------------------------------------------*/
+    public synchronized DetectionBatch detectionImage(Mat matImg, DetectionBatch batch) {
+        batch.clear();
 
-        int predClass = 0;
-        float prob = 0;
-        for (int i = 1; i < array.length; i++) {
-            if (array[i] > array[predClass]) {
-                predClass = i;
-                prob = array[i];
-            }
+        // check if empty image or engine already closed
+        if (matImg == null || matImg.empty() || detectionEngine == null) {
+            return batch;
         }
+        initPreprocessing();
 
-        result[0] = prob;
-        result[1] = predClass;
-        return result; // position of the first largest found
-    }
-
-    /*-------------------------------*/
-    /* Check overlayed detections    */
-    /*-------------------------------*/
-    private boolean checkOverlayedBoxes(List<float[]> showedResults, float[] result, int width, int height) {
-        float xA, yA, xB, yB;
-        float areaA, areaB, areaThreshold = 10;
-
-        for (float[] res : showedResults) {
-            xA = Math.max(result[1] * width - result[3] * width / 2, res[1] * width - res[3] * width / 2);
-            yA = Math.max(result[2] * height - result[4] * height / 2, res[2] * height - res[4] * height / 2);
-            xB = Math.min(result[1] * width + result[3] * width / 2, res[1] * width + res[3] * width / 2);
-            yB = Math.min(result[2] * height + result[4] * height / 2, res[2] * height + res[4] * height / 2);
-
-            // if boxes intersect
-            areaA = Math.max(0, xB - xA + 1);
-            areaB = Math.max(0, yB - yA + 1);
-            if (areaA * areaB > 0 && (areaA > areaThreshold && areaB > areaThreshold)) {
-                return true;
-            }
+        // large image -> overlapping tiles at full resolution on all cores (tile failed -> single pass below)
+        if (useTiledDetection(matImg) && getTiledDetector().detect(matImg, batch)) {
+            return recognitionFullImage(matImg, batch);
         }
 
-        return false;
-    }
+        // resize and normalize straight into model input
+        ByteBuffer byteBuffer = detectionPreprocessor.toTensor(matImg);
+        Mat resized = detectionPreprocessor.getResized();
 
-    /*----------------------------------------------*/
-    /* Add recognition results in a list of results */
-    /*----------------------------------------------*/
-    private void getListOfResults(List<String> listOfResults, List<String> displayedTextArray, float latency, boolean realTime, String FPS) {
-        String returnedText = "";
+        // detection
+        int numberOfCrops = detectBoxes(byteBuffer, resized.width(), resized.height(), batch, null, detectionPreprocessor.getTransform());
 
-        if(realTime) {
-            returnedText += displayedTextArray.size() + " signs";
-            returnedText += "\n" + latency + " ms";
-            returnedText += "\n" + FPS.split("@")[0];
-            if(listOfResults.size() > 0) {
-                listOfResults.remove(0);
-            }
-            listOfResults.add(returnedText);
-        }
-        else {
-            returnedText += "Number of detected signs: " + displayedTextArray.size() + "\n\n";
-            for (String text : displayedTextArray) {
-                returnedText += text + "\n";
-            }
-            returnedText += "\nTotal latency: " + latency + " ms";
-            listOfResults.add(0, returnedText);
-        }
+        // make recognition (single photo, no votes from camera frames)
+        return recognition(resized, numberOfCrops, batch, null);
     }
 
-}
\ No newline at end of file
+}
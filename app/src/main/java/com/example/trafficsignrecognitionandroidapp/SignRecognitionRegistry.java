@@ -0,0 +1,80 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+public final class SignRecognitionRegistry {
+    private static final String TAG = "SignRecognitionRegistry";
+
+    // one shared engine for each model configuration
+    private static final Map<ModelConfig, Entry> engines = new HashMap<>();
+
+    private SignRecognitionRegistry() {
+    }
+
+    private static final class Entry {
+        final SignRecognition engine;
+        int references;
+
+        Entry(SignRecognition engine) {
+            this.engine = engine;
+        }
+    }
+
+    /*------------------------------*/
+    /* Acquire default engine       */
+    /*------------------------------*/
+    public static SignRecognition acquire(Context context) throws IOException {
+        return acquire(context, ModelConfig.DEFAULT);
+    }
+
+    /*-------------------------------------------*/
+    /* Acquire engine, load models if necessary  */
+    /*-------------------------------------------*/
+    public static SignRecognition acquire(Context context, ModelConfig config) throws IOException {
+        return acquire(context, config, null);
+    }
+
+    // loader: models of new engine prepared in parallel on it (null -> on caller only)
+    public static synchronized SignRecognition acquire(Context context, ModelConfig config, Executor loader) throws IOException {
+        Entry entry = engines.get(config);
+
+        // first user of this configuration -> load models
+        if (entry == null) {
+            // interpreter options calibrated on first launch, stored for this model and device
+            entry = new Entry(new SignRecognition(context.getApplicationContext().getAssets(), config, new InterpreterTuner(context), loader));
+            engines.put(config, entry);
+            Log.d(TAG, "acquire: Engine loaded for " + config);
+        }
+
+        entry.references++;
+        return entry.engine;
+    }
+
+    /*------------------------------------------------*/
+    /* Release engine, close it when no longer used   */
+    /*------------------------------------------------*/
+    public static synchronized void release(SignRecognition engine) {
+        if (engine == null) {
+            return;
+        }
+
+        Entry entry = engines.get(engine.getConfig());
+        if (entry == null || entry.engine != engine) {
+            Log.w(TAG, "release: Engine is not registered");
+            return;
+        }
+
+        entry.references--;
+        if (entry.references == 0) {
+            engines.remove(engine.getConfig());
+            engine.close();
+            Log.d(TAG, "release: Engine closed for " + engine.getConfig());
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.video.KalmanFilter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class SignTracker {
+
+    // track lifecycle
+    public static final int TENTATIVE = 0;
+    public static final int CONFIRMED = 1;
+    public static final int LOST = 2;
+
+    // kalman state: cx, cy, w, h + velocities, measurement: cx, cy, w, h
+    private static final int STATE_SIZE = 8;
+    private static final int MEASUREMENT_SIZE = 4;
+
+    public interface Listener {
+        // called once for each physical sign, when its track is confirmed (thread calling update)
+        void onTrackConfirmed(Track track);
+    }
+
+    // box motion of one track: kalman filter on device, plain model in local tests
+    interface Motion {
+        // box: cx, cy, w, h, overwritten with new estimate by predict and correct
+        void start(float[] box);
+
+        void predict(float[] box);
+
+        void correct(float[] box);
+
+        void release();
+    }
+
+    // settings
+    private final int maxTracks;
+    private float minIou = 0.3F;
+    private int confirmHits = 3;
+    private int maxLostFrames = 15;
+    private int maxCoastFrames = 5;
+    private Listener listener;
+
+    // tracks (active + recycled, each one owns native kalman memory)
+    private final List<Track> tracks = new ArrayList<>();
+    private final ArrayDeque<Track> freeTracks = new ArrayDeque<>();
+    private final Supplier<Motion> motionFactory;
+    private int nextId = 0;
+
+    // association
+    private final HungarianAssignment hungarianAssignment;
+    private final boolean[] detectionMatched;
+
+    /*------------------------------*/
+    /* SignTracker constructor      */
+    /*------------------------------*/
+    public SignTracker(int maxTracks, int maxDetections) {
+        this(maxTracks, maxDetections, KalmanMotion::new);
+    }
+
+    SignTracker(int maxTracks, int maxDetections, Supplier<Motion> motionFactory) {
+        this.maxTracks = maxTracks;
+        this.motionFactory = motionFactory;
+        hungarianAssignment = new HungarianAssignment(Math.max(maxTracks, maxDetections));
+        detectionMatched = new boolean[maxDetections];
+    }
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    public void setMinIou(float minIou) {
+        this.minIou = minIou;
+    }
+
+    public void setConfirmHits(int confirmHits) {
+        this.confirmHits = confirmHits;
+    }
+
+    public void setMaxLostFrames(int maxLostFrames) {
+        this.maxLostFrames = maxLostFrames;
+    }
+
+    // lost tracks still drawn (predicted box) during first missed frames
+    public void setMaxCoastFrames(int maxCoastFrames) {
+        this.maxCoastFrames = maxCoastFrames;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /*------------------------------------------------------*/
+    /* Predict, associate and update with a new detection   */
+    /*------------------------------------------------------*/
+    public void update(DetectionBatch batch) {
+        int numberOfTracks = tracks.size();
+        int numberOfDetections = Math.min(batch.getCount(), detectionMatched.length);
+
+        // move every track to current frame
+        for (int t = 0; t < numberOfTracks; t++) {
+            tracks.get(t).predict();
+        }
+
+        // cost = 1 - IoU between predicted track and detection
+        for (int t = 0; t < numberOfTracks; t++) {
+            Track track = tracks.get(t);
+            for (int d = 0; d < numberOfDetections; d++) {
+                float iou = NonMaxSuppression.iou(track.x, track.y, track.w, track.h,
+                        batch.x[d], batch.y[d], batch.w[d], batch.h[d]);
+                hungarianAssignment.setCost(t, d, 1 - iou);
+            }
+        }
+        hungarianAssignment.solve(numberOfTracks, numberOfDetections);
+
+        // matched pairs over IoU gate -> correct track
+        for (int d = 0; d < numberOfDetections; d++) {
+            detectionMatched[d] = false;
+        }
+        for (int t = 0; t < numberOfTracks; t++) {
+            Track track = tracks.get(t);
+            int d = hungarianAssignment.getAssignment(t);
+            if (d >= 0 && NonMaxSuppression.iou(track.x, track.y, track.w, track.h,
+                    batch.x[d], batch.y[d], batch.w[d], batch.h[d]) >= minIou) {
+                detectionMatched[d] = true;
+                track.correct(batch, d);
+                batch.trackId[d] = track.id;
+                if (track.state != CONFIRMED && track.hits >= confirmHits) {
+                    boolean first = track.state == TENTATIVE;
+                    track.state = CONFIRMED;
+                    if (first && listener != null) {
+                        listener.onTrackConfirmed(track);
+                    }
+                }
+            }
+            else {
+                // keep predicting lost track, it can be matched again
+                track.misses++;
+                if (track.state == CONFIRMED) {
+                    track.state = LOST;
+                }
+            }
+        }
+
+        // drop tentative tracks missed once and tracks lost for too long
+        for (int t = tracks.size() - 1; t >= 0; t--) {
+            Track track = tracks.get(t);
+            if (track.misses > 0 && (track.hits < confirmHits || track.misses > maxLostFrames)) {
+                tracks.remove(t);
+                freeTracks.push(track);
+            }
+        }
+
+        // unmatched detections start new tentative tracks
+        for (int d = 0; d < numberOfDetections; d++) {
+            if (!detectionMatched[d] && tracks.size() < maxTracks) {
+                Track track = freeTracks.isEmpty() ? new Track(motionFactory.get()) : freeTracks.pop();
+                track.start(nextId++, batch, d);
+                tracks.add(track);
+                batch.trackId[d] = track.id;
+            }
+        }
+    }
+
+    /*-------------------------------------------------------*/
+    /* Tracked boxes for overlay and results                 */
+    /*-------------------------------------------------------*/
+    // matched tracks (new ones too, not delayed until confirmed) + lost tracks coasting on prediction
+    public DetectionBatch writeTracks(DetectionBatch batch) {
+        batch.clear();
+        for (int t = 0; t < tracks.size(); t++) {
+            Track track = tracks.get(t);
+            if (track.misses > maxCoastFrames) {
+                continue;
+            }
+            int i = batch.add(track.x, track.y, track.w, track.h, track.detectionScore);
+            if (i < 0) {
+                break;
+            }
+            batch.setClass(i, track.classId, track.classScore);
+            batch.trackId[i] = track.id;
+        }
+        return batch;
+    }
+
+    /*------------------------------*/
+    /* Getters                      */
+    /*------------------------------*/
+    public int getTrackCount() {
+        return tracks.size();
+    }
+
+    public Track getTrack(int t) {
+        return tracks.get(t);
+    }
+
+    /*------------------------------*/
+    /* Forget all tracks            */
+    /*------------------------------*/
+    public void clear() {
+        for (int t = 0; t < tracks.size(); t++) {
+            freeTracks.push(tracks.get(t));
+        }
+        tracks.clear();
+    }
+
+    public void release() {
+        clear();
+        for (Track track : freeTracks) {
+            track.release();
+        }
+        freeTracks.clear();
+    }
+
+    public static class Track {
+        // identity & lifecycle
+        private int id;
+        private int state;
+        private int hits;
+        private int misses;
+
+        // current box estimate and last recognition
+        private float x, y, w, h;
+        private float detectionScore;
+        private int classId;
+        private float classScore;
+
+        // motion model (kalman filter on device)
+        private final Motion motion;
+        private final float[] box = new float[MEASUREMENT_SIZE];
+
+        /*------------------------------*/
+        /* Track constructor            */
+        /*------------------------------*/
+        Track(Motion motion) {
+            this.motion = motion;
+        }
+
+        void start(int id, DetectionBatch batch, int d) {
+            this.id = id;
+            state = TENTATIVE;
+            hits = 1;
+            misses = 0;
+            setDetection(batch, d);
+
+            // start still, at detected box
+            box[0] = x;
+            box[1] = y;
+            box[2] = w;
+            box[3] = h;
+            motion.start(box);
+        }
+
+        void predict() {
+            motion.predict(box);
+            setBox();
+        }
+
+        void correct(DetectionBatch batch, int d) {
+            box[0] = batch.x[d];
+            box[1] = batch.y[d];
+            box[2] = batch.w[d];
+            box[3] = batch.h[d];
+            motion.correct(box);
+            setBox();
+
+            hits++;
+            misses = 0;
+            detectionScore = batch.detectionScore[d];
+            if (batch.classId[d] >= 0) {
+                classId = batch.classId[d];
+                classScore = batch.classScore[d];
+            }
+        }
+
+        private void setDetection(DetectionBatch batch, int d) {
+            x = batch.x[d];
+            y = batch.y[d];
+            w = batch.w[d];
+            h = batch.h[d];
+            detectionScore = batch.detectionScore[d];
+            classId = batch.classId[d];
+            classScore = batch.classScore[d];
+        }
+
+        private void setBox() {
+            x = box[0];
+            y = box[1];
+            w = box[2];
+            h = box[3];
+        }
+
+        void release() {
+            motion.release();
+        }
+
+        /*------------------------------*/
+        /* Getters                      */
+        /*------------------------------*/
+        public int getId() {
+            return id;
+        }
+
+        public int getState() {
+            return state;
+        }
+
+        public int getClassId() {
+            return classId;
+        }
+
+        public float getClassScore() {
+            return classScore;
+        }
+    }
+
+    private static class KalmanMotion implements Motion {
+        // constant velocity model over cx, cy, w, h
+        private final KalmanFilter kalmanFilter;
+        private final Mat statePost;
+        private final Mat errorCov;
+        private final Mat measurement;
+        private final float[] stateValues = new float[STATE_SIZE];
+
+        /*------------------------------*/
+        /* KalmanMotion constructor     */
+        /*------------------------------*/
+        KalmanMotion() {
+            kalmanFilter = new KalmanFilter(STATE_SIZE, MEASUREMENT_SIZE, 0, CvType.CV_32F);
+
+            // position += velocity each frame (setters copy -> local matrices released)
+            Mat transition = Mat.eye(STATE_SIZE, STATE_SIZE, CvType.CV_32F);
+            for (int i = 0; i < MEASUREMENT_SIZE; i++) {
+                transition.put(i, i + MEASUREMENT_SIZE, 1);
+            }
+            kalmanFilter.set_transitionMatrix(transition);
+            transition.release();
+            Mat measurementMatrix = Mat.eye(MEASUREMENT_SIZE, STATE_SIZE, CvType.CV_32F);
+            kalmanFilter.set_measurementMatrix(measurementMatrix);
+            measurementMatrix.release();
+
+            // normalized coordinates -> small noise
+            Mat processNoise = new Mat(STATE_SIZE, STATE_SIZE, CvType.CV_32F);
+            Core.setIdentity(processNoise, Scalar.all(1e-5));
+            kalmanFilter.set_processNoiseCov(processNoise);
+            processNoise.release();
+            Mat measurementNoise = new Mat(MEASUREMENT_SIZE, MEASUREMENT_SIZE, CvType.CV_32F);
+            Core.setIdentity(measurementNoise, Scalar.all(1e-4));
+            kalmanFilter.set_measurementNoiseCov(measurementNoise);
+            measurementNoise.release();
+
+            statePost = new Mat(STATE_SIZE, 1, CvType.CV_32F);
+            errorCov = new Mat(STATE_SIZE, STATE_SIZE, CvType.CV_32F);
+            measurement = new Mat(MEASUREMENT_SIZE, 1, CvType.CV_32F);
+        }
+
+        @Override
+        public void start(float[] box) {
+            System.arraycopy(box, 0, stateValues, 0, MEASUREMENT_SIZE);
+            for (int i = MEASUREMENT_SIZE; i < STATE_SIZE; i++) {
+                stateValues[i] = 0;
+            }
+            statePost.put(0, 0, stateValues);
+            kalmanFilter.set_statePost(statePost);
+            Core.setIdentity(errorCov, Scalar.all(1e-2));
+            kalmanFilter.set_errorCovPost(errorCov);
+        }
+
+        @Override
+        public void predict(float[] box) {
+            // returned header released, state stays in filter
+            Mat prediction = kalmanFilter.predict();
+            prediction.get(0, 0, stateValues);
+            prediction.release();
+            System.arraycopy(stateValues, 0, box, 0, MEASUREMENT_SIZE);
+        }
+
+        @Override
+        public void correct(float[] box) {
+            measurement.put(0, 0, box);
+            Mat corrected = kalmanFilter.correct(measurement);
+            corrected.get(0, 0, stateValues);
+            corrected.release();
+            System.arraycopy(stateValues, 0, box, 0, MEASUREMENT_SIZE);
+        }
+
+        @Override
+        public void release() {
+            statePost.release();
+            errorCov.release();
+            measurement.release();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TensorBufferPool {
+
+    // pooled tensors, one for each input shape
+    private final List<InputTensor> tensors = new ArrayList<>();
+
+    // number of tensors allocated since creation (steady state -> constant)
+    private int allocationCount = 0;
+
+    /*----------------------------------------------*/
+    /* Get pooled tensor, allocate only first time  */
+    /*----------------------------------------------*/
+    public synchronized InputTensor acquire(int batchSize, int inputSize, int pixelSize, boolean quantized) {
+        return acquire(batchSize, inputSize, pixelSize, quantized, 0);
+    }
+
+    // copy -> distinct tensors of same shape (ping-pong buffers of pipelined stages)
+    public synchronized InputTensor acquire(int batchSize, int inputSize, int pixelSize, boolean quantized, int copy) {
+        // indexed loop -> no iterator allocation
+        for (int i = 0; i < tensors.size(); i++) {
+            InputTensor tensor = tensors.get(i);
+            if (tensor.matches(batchSize, inputSize, pixelSize, quantized) && tensor.copy == copy) {
+                return tensor;
+            }
+        }
+
+        // first request for this shape
+        InputTensor tensor = new InputTensor(batchSize, inputSize, pixelSize, quantized);
+        tensor.copy = copy;
+        tensors.add(tensor);
+        allocationCount++;
+
+        return tensor;
+    }
+
+    public synchronized int getAllocationCount() {
+        return allocationCount;
+    }
+
+    public synchronized void clear() {
+        tensors.clear();
+    }
+
+    public static class InputTensor {
+        // shape
+        private final int batchSize;
+        private final int inputSize;
+        private final int pixelSize;
+        private final boolean quantized;
+        private int copy;
+
+        // native memory given to interpreter
+        private final ByteBuffer buffer;
+
+        /*------------------------------*/
+        /* InputTensor constructor      */
+        /*------------------------------*/
+        InputTensor(int batchSize, int inputSize, int pixelSize, boolean quantized) {
+            this.batchSize = batchSize;
+            this.inputSize = inputSize;
+            this.pixelSize = pixelSize;
+            this.quantized = quantized;
+
+            int elements = batchSize * inputSize * inputSize * pixelSize;
+            buffer = ByteBuffer.allocateDirect(quantized ? elements : 4 * elements);
+            buffer.order(ByteOrder.nativeOrder());
+        }
+
+        boolean matches(int batchSize, int inputSize, int pixelSize, boolean quantized) {
+            return this.batchSize == batchSize && this.inputSize == inputSize
+                    && this.pixelSize == pixelSize && this.quantized == quantized;
+        }
+
+        /*------------------------------------------*/
+        /* Tensor memory, filled by preprocessing   */
+        /*------------------------------------------*/
+        public ByteBuffer getBuffer() {
+            buffer.rewind();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+import java.nio.ByteBuffer;
+
+public class TfliteEngine implements InferenceEngine {
+
+    // data members
+    private final Interpreter interpreter;
+    private final Quantization inputQuantization;
+    private final Quantization outputQuantization;
+
+    /*------------------------------*/
+    /* TfliteEngine constructor     */
+    /*------------------------------*/
+    TfliteEngine(ByteBuffer model, int threads) {
+        this(model, new Interpreter.Options().setNumThreads(threads));
+    }
+
+    TfliteEngine(ByteBuffer model, Interpreter.Options options) {
+        interpreter = new Interpreter(model, options);
+
+        // quantized models -> uint8 / int8 tensors, parameters do not change with batch size
+        inputQuantization = quantizationOf(interpreter.getInputTensor(0));
+        outputQuantization = quantizationOf(interpreter.getOutputTensor(0));
+    }
+
+    /*---------------------------------------------------*/
+    /* Scale and zero point of int8 / uint8 tensor       */
+    /*---------------------------------------------------*/
+    static Quantization quantizationOf(Tensor tensor) {
+        DataType dataType = tensor.dataType();
+        if (dataType != DataType.UINT8 && dataType != DataType.INT8) {
+            return null;
+        }
+        Tensor.QuantizationParams params = tensor.quantizationParams();
+        return new Quantization(params.getScale(), params.getZeroPoint(), dataType == DataType.INT8);
+    }
+
+    /*------------------------------*/
+    /* Description                  */
+    /*------------------------------*/
+    @Override
+    public int[] getInputShape() {
+        return interpreter.getInputTensor(0).shape();
+    }
+
+    @Override
+    public int[] getOutputShape() {
+        return interpreter.getOutputTensor(0).shape();
+    }
+
+    @Override
+    public Quantization getInputQuantization() {
+        return inputQuantization;
+    }
+
+    @Override
+    public Quantization getOutputQuantization() {
+        return outputQuantization;
+    }
+
+    /*------------------------------*/
+    /* Execution                    */
+    /*------------------------------*/
+    // -1 in shape signature = dynamic dimension (models exported with fixed batch fail on resize)
+    @Override
+    public boolean supportsBatchResize() {
+        int[] signature = interpreter.getInputTensor(0).shapeSignature();
+        return signature.length > 0 && signature[0] == -1;
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        interpreter.resizeInput(0, shape);
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        interpreter.run(input, output);
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+    }
+}
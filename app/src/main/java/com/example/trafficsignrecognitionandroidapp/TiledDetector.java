@@ -0,0 +1,336 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.util.Log;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TiledDetector {
+    private String TAG = "TiledDetector";
+
+    // boxes this close to an inner tile edge are cut by the seam (fraction of tile), the neighbouring tile sees them whole
+    private static final float SEAM_MARGIN = 0.01F;
+
+    // data members
+    private final int inputSize;
+    private final int rowLength;
+    private final int maxCandidates;
+    private final int maxPerTile;
+    private final float confidence;
+    private final Quantization inputQuantization; // null for float models
+    private final Quantization outputQuantization;
+    private int tileSize;
+    private float overlap = 0.2F;
+    private float iouThreshold = 0.45F;
+
+    // one engine for each core, tiles taken from a shared counter
+    private final ExecutorService executor;
+    private final Worker[] workers;
+    private final List<Callable<Void>> tasks = new ArrayList<>();
+    private final AtomicInteger nextTile = new AtomicInteger();
+
+    // tile layout of current image (tile 0 = whole image downscaled, catches signs larger than a tile)
+    private int tileCount;
+    private int[] tileX = new int[0], tileY = new int[0], tileW = new int[0], tileH = new int[0];
+    private int[] originsX = new int[0], originsY = new int[0];
+    private Mat image;
+
+    // boxes of all tiles in full image coordinates (tile t writes from t * maxPerTile)
+    private float[] boxX = new float[0], boxY = new float[0], boxW = new float[0], boxH = new float[0], boxScore = new float[0];
+    private int[] tileBoxCount = new int[0];
+    private float[] mergedX, mergedY, mergedW, mergedH, mergedScore;
+    private NonMaxSuppression nonMaxSuppression;
+
+    /*------------------------------*/
+    /* TiledDetector constructor    */
+    /*------------------------------*/
+    TiledDetector(InferenceEngine.Factory engineFactory, int numberOfWorkers, int threadsPerWorker, int inputSize, int rowLength,
+                  int outputRows, int pixelSize, Quantization inputQuantization, Quantization outputQuantization,
+                  int maxCandidates, int maxPerTile, float confidence) {
+        this.inputSize = inputSize;
+        this.rowLength = rowLength;
+        this.maxCandidates = maxCandidates;
+        this.maxPerTile = maxPerTile;
+        this.confidence = confidence;
+        this.inputQuantization = inputQuantization;
+        this.outputQuantization = outputQuantization;
+        tileSize = inputSize;
+
+        // each worker owns engine, input and output -> no locking between tiles
+        TensorBufferPool tensorBufferPool = new TensorBufferPool();
+        workers = new Worker[numberOfWorkers];
+        for (int w = 0; w < numberOfWorkers; w++) {
+            workers[w] = new Worker(engineFactory, threadsPerWorker, tensorBufferPool.acquire(1, inputSize, pixelSize, inputQuantization != null, w), outputRows);
+            final Worker worker = workers[w];
+            tasks.add(() -> {
+                worker.run();
+                return null;
+            });
+        }
+        executor = Executors.newFixedThreadPool(numberOfWorkers);
+    }
+
+    /*------------------------------*/
+    /* Settings                     */
+    /*------------------------------*/
+    // tile side in image pixels (input size -> no downscaling) and overlap between neighbouring tiles
+    public void setTiling(int tileSize, float overlap) {
+        this.tileSize = tileSize;
+        this.overlap = overlap;
+    }
+
+    public void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    // edge tiles and whole image are not square
+    public void setLetterbox(boolean letterbox) {
+        for (Worker worker : workers) {
+            worker.preprocessor.setLetterbox(letterbox);
+        }
+    }
+
+    public int getNumberOfWorkers() {
+        return workers.length;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    /*------------------------------------------------------------*/
+    /* Detect on overlapping tiles, merged boxes added to batch   */
+    /*------------------------------------------------------------*/
+    // false -> a tile failed or was interrupted, batch untouched (caller falls back to whole image)
+    public boolean detect(Mat rgbaImg, DetectionBatch batch) {
+        long startTime = LatencyMetrics.now();
+        layoutTiles(rgbaImg.cols(), rgbaImg.rows());
+
+        // no boxes left from previous image
+        Arrays.fill(tileBoxCount, 0, tileCount, 0);
+
+        // all workers pull tiles until none is left
+        image = rgbaImg;
+        nextTile.set(0);
+        try {
+            List<Future<Void>> futures = executor.invokeAll(tasks);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.w(TAG, "detect: Interrupted");
+            return false;
+        }
+        catch (ExecutionException e) {
+            Log.w(TAG, "detect: Tile failed: " + e.getCause());
+            return false;
+        }
+        finally {
+            image = null;
+        }
+
+        // suppress duplicates along seams and between tile and whole image
+        int count = 0;
+        for (int t = 0; t < tileCount; t++) {
+            for (int k = 0, i = t * maxPerTile; k < tileBoxCount[t]; k++, i++) {
+                mergedX[count] = boxX[i];
+                mergedY[count] = boxY[i];
+                mergedW[count] = boxW[i];
+                mergedH[count] = boxH[i];
+                mergedScore[count] = boxScore[i];
+                count++;
+            }
+        }
+        int kept = nonMaxSuppression.apply(mergedX, mergedY, mergedW, mergedH, mergedScore, null, count);
+        for (int k = 0; k < kept; k++) {
+            int i = nonMaxSuppression.getKept(k);
+            if (batch.add(mergedX[i], mergedY[i], mergedW[i], mergedH[i], mergedScore[i]) < 0) {
+                break;
+            }
+        }
+
+        long stopTime = LatencyMetrics.record(LatencyMetrics.Stage.DETECTION_INVOKE, startTime);
+        batch.detectionLatency = (int) ((stopTime - startTime) / 1000000);
+        return true;
+    }
+
+    /*------------------------------------------*/
+    /* Tiles of image, arrays grown if needed   */
+    /*------------------------------------------*/
+    private void layoutTiles(int width, int height) {
+        int side = Math.min(tileSize, Math.max(width, height));
+        int columns = tileOrigins(width, side, overlap, null);
+        int rows = tileOrigins(height, side, overlap, null);
+        if (originsX.length < columns) {
+            originsX = new int[columns];
+        }
+        if (originsY.length < rows) {
+            originsY = new int[rows];
+        }
+        columns = tileOrigins(width, side, overlap, originsX);
+        rows = tileOrigins(height, side, overlap, originsY);
+
+        // small image -> whole image only
+        tileCount = columns * rows > 1 ? 1 + columns * rows : 1;
+        if (tileX.length < tileCount) {
+            tileX = new int[tileCount];
+            tileY = new int[tileCount];
+            tileW = new int[tileCount];
+            tileH = new int[tileCount];
+            tileBoxCount = new int[tileCount];
+            int boxes = tileCount * maxPerTile;
+            boxX = new float[boxes];
+            boxY = new float[boxes];
+            boxW = new float[boxes];
+            boxH = new float[boxes];
+            boxScore = new float[boxes];
+            mergedX = new float[boxes];
+            mergedY = new float[boxes];
+            mergedW = new float[boxes];
+            mergedH = new float[boxes];
+            mergedScore = new float[boxes];
+            nonMaxSuppression = new NonMaxSuppression(boxes, iouThreshold);
+        }
+        nonMaxSuppression.setIouThreshold(iouThreshold);
+
+        tileX[0] = 0;
+        tileY[0] = 0;
+        tileW[0] = width;
+        tileH[0] = height;
+        for (int r = 0, t = 1; tileCount > 1 && r < rows; r++) {
+            for (int c = 0; c < columns; c++, t++) {
+                tileX[t] = originsX[c];
+                tileY[t] = originsY[r];
+                tileW[t] = Math.min(side, width);
+                tileH[t] = Math.min(side, height);
+            }
+        }
+    }
+
+    /*---------------------------------------------------------------*/
+    /* Evenly spaced tile origins covering length, at least overlap  */
+    /*---------------------------------------------------------------*/
+    // origins null -> only number of tiles
+    static int tileOrigins(int length, int tile, float overlap, int[] origins) {
+        if (length <= tile) {
+            if (origins != null) {
+                origins[0] = 0;
+            }
+            return 1;
+        }
+        int stride = Math.max(1, (int) (tile * (1 - overlap)));
+        int count = (length - tile + stride - 1) / stride + 1;
+        for (int i = 0; origins != null && i < count; i++) {
+            origins[i] = (int) ((long) i * (length - tile) / (count - 1));
+        }
+        return count;
+    }
+
+    /*------------------------------*/
+    /* Shutdown threads & models    */
+    /*------------------------------*/
+    public void close() {
+        executor.shutdownNow();
+        for (Worker worker : workers) {
+            worker.close();
+        }
+    }
+
+    private class Worker {
+        private final InferenceEngine engine;
+        private final MatPreprocessor preprocessor;
+        private final ByteBuffer outputBuffer;
+        private final FloatBuffer output;
+        private final DetectionDecoder detectionDecoder;
+        private final NonMaxSuppression tileSuppression;
+
+        Worker(InferenceEngine.Factory engineFactory, int threads, TensorBufferPool.InputTensor tensor, int outputRows) {
+            // parallelism comes from tiles, threads of each engine = its share of cores
+            engine = engineFactory.create(threads);
+            preprocessor = new MatPreprocessor(tensor, 1, inputSize, inputQuantization != null);
+            preprocessor.setInputQuantization(inputQuantization);
+            outputBuffer = ByteBuffer.allocateDirect((outputQuantization != null ? 1 : 4) * outputRows * rowLength);
+            outputBuffer.order(ByteOrder.nativeOrder());
+            output = outputQuantization != null ? null : outputBuffer.asFloatBuffer();
+            detectionDecoder = new DetectionDecoder(maxCandidates, confidence);
+            tileSuppression = new NonMaxSuppression(maxCandidates, iouThreshold);
+        }
+
+        void run() {
+            for (int t = nextTile.getAndIncrement(); t < tileCount; t = nextTile.getAndIncrement()) {
+                detectTile(t);
+            }
+        }
+
+        private void detectTile(int t) {
+            // tile -> model input (resize is a copy when tile matches input size)
+            Mat tile = image.submat(new Rect(tileX[t], tileY[t], tileW[t], tileH[t]));
+            preprocessor.toTensor(tile);
+            tile.release();
+
+            outputBuffer.rewind();
+            engine.run(preprocessor.getBatch(1), outputBuffer);
+            int numberOfResults = outputQuantization != null
+                    ? detectionDecoder.decode(outputBuffer, rowLength, outputQuantization)
+                    : detectionDecoder.decode(output, rowLength);
+            int kept = tileSuppression.apply(detectionDecoder.getResult(), detectionDecoder.getMaxDetections(), null, numberOfResults);
+
+            // inner edges of this tile (image borders are real edges)
+            int width = image.cols();
+            int height = image.rows();
+            boolean innerLeft = tileX[t] > 0, innerTop = tileY[t] > 0;
+            boolean innerRight = tileX[t] + tileW[t] < width, innerBottom = tileY[t] + tileH[t] < height;
+
+            // best maxPerTile boxes left after suppression
+            int count = 0;
+            for (int k = 0; k < kept && count < maxPerTile; k++) {
+                int d = tileSuppression.getKept(k);
+                FrameTransform toTile = preprocessor.getTransform();
+                float inputX = detectionDecoder.get(DetectionDecoder.X, d);
+                float inputY = detectionDecoder.get(DetectionDecoder.Y, d);
+                float inputW = detectionDecoder.get(DetectionDecoder.W, d);
+                float inputH = detectionDecoder.get(DetectionDecoder.H, d);
+                float x = toTile.mapX(inputX, inputY);
+                float y = toTile.mapY(inputX, inputY);
+                float w = toTile.mapW(inputW, inputH);
+                float h = toTile.mapH(inputW, inputH);
+
+                // box cut by seam -> dropped, neighbour tile has it whole
+                if (t > 0 && ((innerLeft && x - w / 2 < SEAM_MARGIN) || (innerTop && y - h / 2 < SEAM_MARGIN)
+                        || (innerRight && x + w / 2 > 1 - SEAM_MARGIN) || (innerBottom && y + h / 2 > 1 - SEAM_MARGIN))) {
+                    continue;
+                }
+
+                // tile normalized -> image normalized
+                int i = t * maxPerTile + count;
+                boxX[i] = (tileX[t] + x * tileW[t]) / width;
+                boxY[i] = (tileY[t] + y * tileH[t]) / height;
+                boxW[i] = w * tileW[t] / width;
+                boxH[i] = h * tileH[t] / height;
+                boxScore[i] = detectionDecoder.get(DetectionDecoder.SCORE, d);
+                count++;
+            }
+            tileBoxCount[t] = count;
+        }
+
+        void close() {
+            engine.close();
+            preprocessor.release();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import android.app.Application;
+import android.util.Log;
+
+import org.opencv.android.OpenCVLoader;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TrafficSignApplication extends Application {
+    private static final String TAG = "TrafficSignApplication";
+
+    // OpenCV, detection model, recognition model -> one thread each
+    private static final int LOADER_THREADS = 3;
+
+    // cold start on background threads, engine kept for whole process
+    private ExecutorService loader;
+    private CompletableFuture<SignRecognition> ready;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        long startTime = System.currentTimeMillis();
+
+        loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "ColdStart");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+
+        // native library, independent of models
+        CompletableFuture<Void> openCv = CompletableFuture.runAsync(() -> {
+            if (!OpenCVLoader.initDebug()) {
+                throw new IllegalStateException("Opencv fail");
+            }
+            Log.d(TAG, "Opencv load");
+        }, loader);
+
+        // both models mapped, compiled and warmed up in parallel, application holds first reference
+        // (OpenCV DNN backend -> native library loaded first)
+        ModelConfig config = ModelConfig.DEFAULT;
+        CompletableFuture<Void> before = config.needsOpenCv() ? openCv : CompletableFuture.completedFuture(null);
+        CompletableFuture<SignRecognition> engine = before.thenApplyAsync(loaded -> {
+            try {
+                return SignRecognitionRegistry.acquire(this, config, loader);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, loader);
+
+        ready = engine.thenCombine(openCv, (signRecognition, loaded) -> signRecognition);
+        ready.whenComplete((signRecognition, failure) -> {
+            if (failure != null) {
+                Log.e(TAG, "onCreate: Cold start failed: " + failure.getMessage());
+            }
+            else {
+                Log.d(TAG, "onCreate: Ready in " + (System.currentTimeMillis() - startTime) + " ms");
+            }
+            loader.shutdown();
+        });
+    }
+
+    /*--------------------------------------------------*/
+    /* Completes when OpenCV and engine can be used     */
+    /*--------------------------------------------------*/
+    public CompletableFuture<SignRecognition> getReady() {
+        return ready;
+    }
+}
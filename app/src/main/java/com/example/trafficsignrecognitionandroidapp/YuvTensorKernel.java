@@ -0,0 +1,209 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+public class YuvTensorKernel {
+
+    // letterbox border, gray as in YOLO training (same as MatPreprocessor)
+    private static final int PAD_VALUE = 114;
+
+    // BT.601 video range, 10 bit fixed point (same coefficients as OpenCV NV21 conversion)
+    private static final int SHIFT = 10;
+    private static final int[] LUMA = new int[256];
+    private static final int[] V_TO_R = new int[256];
+    private static final int[] V_TO_G = new int[256];
+    private static final int[] U_TO_G = new int[256];
+    private static final int[] U_TO_B = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            LUMA[i] = Math.max(0, Math.round(1.164F * (i - 16) * (1 << SHIFT))) + (1 << (SHIFT - 1));
+            V_TO_R[i] = Math.round(1.596F * (i - 128) * (1 << SHIFT));
+            V_TO_G[i] = Math.round(0.813F * (i - 128) * (1 << SHIFT));
+            U_TO_G[i] = Math.round(0.391F * (i - 128) * (1 << SHIFT));
+            U_TO_B[i] = Math.round(2.018F * (i - 128) * (1 << SHIFT));
+        }
+    }
+
+    // model input
+    private final int inputSize;
+    private final float[] floatValues = new float[256];
+    private final byte[] byteValues = new byte[256];
+    private boolean quantized;
+
+    // sampling maps of current frame size: output column -> source row, output row -> source column (-1 = border)
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+    private boolean letterbox;
+    private final int[] sourceRow;
+    private final int[] sourceCol;
+    private final FrameTransform transform = new FrameTransform();
+
+    // one output row, bulk copied into tensor
+    private final float[] floatRow;
+    private final byte[] byteRow;
+    private ByteBuffer boundTensor;
+    private FloatBuffer tensorFloats;
+
+    /*------------------------------*/
+    /* YuvTensorKernel constructor  */
+    /*------------------------------*/
+    YuvTensorKernel(int inputSize) {
+        this.inputSize = inputSize;
+        sourceRow = new int[inputSize];
+        sourceCol = new int[inputSize];
+        floatRow = new float[3 * inputSize];
+        byteRow = new byte[3 * inputSize];
+        setOutput(false, null);
+    }
+
+    /*------------------------------------------------*/
+    /* Pixel value -> tensor value (float or raw)     */
+    /*------------------------------------------------*/
+    // quantization null -> pixels as they are (uint8) or / 255 (float)
+    public void setOutput(boolean quantized, Quantization quantization) {
+        this.quantized = quantized;
+        for (int v = 0; v < 256; v++) {
+            floatValues[v] = v / 255F;
+            if (quantization == null || quantization.isPixelIdentity()) {
+                byteValues[v] = (byte) v;
+            }
+            else {
+                int raw = Math.round(v / (255F * quantization.getScale())) + quantization.getZeroPoint();
+                raw = quantization.isSigned() ? Math.max(-128, Math.min(127, raw)) : Math.max(0, Math.min(255, raw));
+                byteValues[v] = (byte) raw;
+            }
+        }
+    }
+
+    public void setLetterbox(boolean letterbox) {
+        if (this.letterbox != letterbox) {
+            this.letterbox = letterbox;
+            frameWidth = -1;
+        }
+    }
+
+    /*-----------------------------------------------------------*/
+    /* Sampling maps for frame rotated 90 clockwise into input   */
+    /*-----------------------------------------------------------*/
+    private void configure(int width, int height) {
+        if (width == frameWidth && height == frameHeight) {
+            return;
+        }
+        frameWidth = width;
+        frameHeight = height;
+
+        // rotated frame is height x width
+        int rotatedWidth = height;
+        int rotatedHeight = width;
+        int contentW = inputSize;
+        int contentH = inputSize;
+        if (letterbox) {
+            double scale = Math.min((double) inputSize / rotatedWidth, (double) inputSize / rotatedHeight);
+            contentW = Math.max(1, Math.min(inputSize, (int) Math.round(rotatedWidth * scale)));
+            contentH = Math.max(1, Math.min(inputSize, (int) Math.round(rotatedHeight * scale)));
+        }
+        int left = (inputSize - contentW) / 2;
+        int top = (inputSize - contentH) / 2;
+
+        // nearest pixel centre, rotated (x, y) = frame (column y, row height - 1 - x)
+        for (int o = 0; o < inputSize; o++) {
+            int x = o - left;
+            int rotatedX = Math.min(rotatedWidth - 1, (int) ((x + 0.5F) * rotatedWidth / contentW));
+            sourceRow[o] = x < 0 || x >= contentW ? -1 : height - 1 - rotatedX;
+
+            int y = o - top;
+            int rotatedY = Math.min(rotatedHeight - 1, (int) ((y + 0.5F) * rotatedHeight / contentH));
+            sourceCol[o] = y < 0 || y >= contentH ? -1 : rotatedY;
+        }
+
+        // model input coordinates -> rotated frame coordinates
+        if (letterbox) {
+            transform.setLetterbox((float) left / inputSize, (float) top / inputSize,
+                    (float) contentW / inputSize, (float) contentH / inputSize);
+        }
+        else {
+            transform.setIdentity();
+        }
+    }
+
+    /*----------------------------------------------------------*/
+    /* YUV frame -> rotated, resized model input + RGBA image   */
+    /*----------------------------------------------------------*/
+    // yuv: NV21 (interleaved V U) or YV12 (V plane then U plane), rgba: inputSize^2 * 4 bytes for crops
+    public void convert(byte[] yuv, int width, int height, boolean nv21, ByteBuffer tensor, byte[] rgba) {
+        configure(width, height);
+        if (!quantized && tensor != boundTensor) {
+            tensorFloats = tensor.asFloatBuffer();
+            boundTensor = tensor;
+        }
+
+        int chromaStart = width * height;
+        int chromaStride = nv21 ? width : width / 2;
+        int secondPlane = chromaStart + (width / 2) * (height / 2);
+        int rowLength = 3 * inputSize;
+
+        for (int oy = 0, pixel = 0; oy < inputSize; oy++) {
+            int col = sourceCol[oy];
+            int chromaCol = nv21 ? col & ~1 : col >> 1;
+
+            for (int ox = 0, i = 0; ox < inputSize; ox++, i += 3, pixel += 4) {
+                int row = sourceRow[ox];
+                int r, g, b;
+                if (col < 0 || row < 0) {
+                    r = g = b = PAD_VALUE;
+                }
+                else {
+                    // one luma read, one chroma pair for each sampled pixel
+                    int luma = LUMA[yuv[row * width + col] & 0xFF];
+                    int chroma = chromaStart + (row >> 1) * chromaStride + chromaCol;
+                    int v = yuv[chroma] & 0xFF;
+                    int u = (nv21 ? yuv[chroma + 1] : yuv[chroma - chromaStart + secondPlane]) & 0xFF;
+                    r = clamp((luma + V_TO_R[v]) >> SHIFT);
+                    g = clamp((luma - V_TO_G[v] - U_TO_G[u]) >> SHIFT);
+                    b = clamp((luma + U_TO_B[u]) >> SHIFT);
+                }
+
+                rgba[pixel] = (byte) r;
+                rgba[pixel + 1] = (byte) g;
+                rgba[pixel + 2] = (byte) b;
+                rgba[pixel + 3] = (byte) 255;
+                if (quantized) {
+                    byteRow[i] = byteValues[r];
+                    byteRow[i + 1] = byteValues[g];
+                    byteRow[i + 2] = byteValues[b];
+                }
+                else {
+                    floatRow[i] = floatValues[r];
+                    floatRow[i + 1] = floatValues[g];
+                    floatRow[i + 2] = floatValues[b];
+                }
+            }
+
+            // bulk copy of row into tensor
+            if (quantized) {
+                tensor.position(oy * rowLength);
+                tensor.put(byteRow, 0, rowLength);
+            }
+            else {
+                tensorFloats.position(oy * rowLength);
+                tensorFloats.put(floatRow, 0, rowLength);
+            }
+        }
+        tensor.rewind();
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    // normalized box in model input -> normalized box in rotated frame
+    public FrameTransform getTransform() {
+        return transform;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+}
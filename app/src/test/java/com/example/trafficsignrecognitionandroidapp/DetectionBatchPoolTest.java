@@ -0,0 +1,53 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the pooled detection results.
+ */
+public class DetectionBatchPoolTest {
+    @Test
+    public void acquire_reusesRecycledBatch() {
+        DetectionBatchPool pool = new DetectionBatchPool(10);
+
+        for (int i = 0; i < 100; i++) {
+            DetectionBatch batch = pool.acquire();
+            batch.add(0.5F, 0.5F, 0.1F, 0.1F, 0.9F);
+            batch.recycle();
+        }
+
+        assertEquals(1, pool.getAllocationCount());
+        assertEquals(0, pool.acquire().getCount());
+    }
+
+    @Test
+    public void recycle_twiceKeepsSingleCopy() {
+        DetectionBatchPool pool = new DetectionBatchPool(10);
+
+        DetectionBatch batch = pool.acquire();
+        batch.recycle();
+        batch.recycle();
+
+        assertSame(batch, pool.acquire());
+        assertNotSame(batch, pool.acquire());
+        assertEquals(2, pool.getAllocationCount());
+    }
+
+    @Test
+    public void add_keepsFieldsTypedAndBounded() {
+        DetectionBatch batch = new DetectionBatch(2);
+
+        int first = batch.add(0.1F, 0.2F, 0.3F, 0.4F, 0.8F);
+        batch.setClass(first, 12, 0.95F);
+        assertEquals(1, batch.add(0, 0, 0, 0, 0.6F));
+        assertEquals(-1, batch.add(0, 0, 0, 0, 0.7F));
+
+        assertEquals(2, batch.getCount());
+        assertEquals(12, batch.classId[first]);
+        assertEquals(0.95F, batch.classScore[first], 0);
+        assertEquals(0.8F, batch.detectionScore[first], 0);
+        assertEquals(-1, batch.classId[1]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the adaptive detect-every-N cadence.
+ */
+public class DetectionCadenceTest {
+    private static int detectionsIn(DetectionCadence cadence, int frames) {
+        int detections = 0;
+        for (int i = 0; i < frames; i++) {
+            detections += cadence.shouldDetect() ? 1 : 0;
+        }
+        return detections;
+    }
+
+    @Test
+    public void shouldDetect_firstFrameAlways() {
+        DetectionCadence cadence = new DetectionCadence(4, 8);
+
+        assertTrue(cadence.shouldDetect());
+        assertFalse(cadence.shouldDetect());
+    }
+
+    @Test
+    public void interval_followsLatencyOverFrameInterval() {
+        DetectionCadence cadence = new DetectionCadence(1, 8);
+
+        cadence.recordFrameInterval(33);
+        cadence.recordDetectionLatency(90);
+
+        assertEquals(3, cadence.getInterval());
+        assertEquals(10, detectionsIn(cadence, 30));
+    }
+
+    @Test
+    public void interval_clampedToBounds() {
+        DetectionCadence cadence = new DetectionCadence(2, 5);
+
+        cadence.recordFrameInterval(33);
+        cadence.recordDetectionLatency(10);
+        assertEquals(2, cadence.getInterval());
+
+        cadence = new DetectionCadence(2, 5);
+        cadence.recordFrameInterval(10);
+        cadence.recordDetectionLatency(500);
+        assertEquals(5, cadence.getInterval());
+    }
+
+    @Test
+    public void requestDetection_detectsNextFrame() {
+        DetectionCadence cadence = new DetectionCadence(8, 8);
+        cadence.shouldDetect();
+        assertFalse(cadence.shouldDetect());
+
+        cadence.requestDetection();
+
+        assertTrue(cadence.shouldDetect());
+        assertFalse(cadence.shouldDetect());
+    }
+}
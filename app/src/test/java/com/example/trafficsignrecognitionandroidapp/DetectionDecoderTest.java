@@ -0,0 +1,137 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the single pass top K detection decoder.
+ */
+public class DetectionDecoderTest {
+    private static float[] row(float x, float objectness, float classScore) {
+        return new float[] {x, 0.5f, 0.1f, 0.1f, objectness, classScore};
+    }
+
+    @Test
+    public void decode_keepsBestKSortedDescending() {
+        float[][] detection = new float[25200][];
+        Random random = new Random(42);
+        float[] scores = new float[detection.length];
+        for (int j = 0; j < detection.length; j++) {
+            detection[j] = row(j, random.nextFloat(), 1f);
+            scores[j] = detection[j][4];
+        }
+        Arrays.sort(scores);
+
+        DetectionDecoder decoder = new DetectionDecoder(10, 0.5f);
+        assertEquals(10, decoder.decode(detection));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(scores[scores.length - 1 - i], decoder.get(DetectionDecoder.SCORE, i), 0f);
+            float x = decoder.get(DetectionDecoder.X, i);
+            assertEquals(decoder.get(DetectionDecoder.SCORE, i), detection[(int) x][4], 0f);
+        }
+    }
+
+    @Test
+    public void decode_keepsTiedScores() {
+        float[][] detection = {row(0, 0.9f, 1f), row(1, 0.9f, 1f), row(2, 0.9f, 1f), row(3, 0.2f, 1f)};
+
+        DetectionDecoder decoder = new DetectionDecoder(10, 0.5f);
+
+        assertEquals(3, decoder.decode(detection));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0.9f, decoder.get(DetectionDecoder.SCORE, i), 0f);
+        }
+    }
+
+    @Test
+    public void decode_scoresObjectnessTimesClass() {
+        float[][] detection = {row(0, 0.9f, 0.5f), row(1, 0.8f, 1f), row(2, 0.6f, 0.9f)};
+
+        DetectionDecoder decoder = new DetectionDecoder(2, 0.5f);
+
+        assertEquals(2, decoder.decode(detection));
+        assertEquals(1f, decoder.get(DetectionDecoder.X, 0), 0f);
+        assertEquals(0.8f, decoder.get(DetectionDecoder.SCORE, 0), 1e-6f);
+        assertEquals(2f, decoder.get(DetectionDecoder.X, 1), 0f);
+        assertEquals(0.54f, decoder.get(DetectionDecoder.SCORE, 1), 1e-6f);
+    }
+
+    @Test
+    public void decode_emptyWhenBelowThreshold() {
+        float[][] detection = {row(0, 0.4f, 1f), row(1, 0.49f, 1f)};
+
+        DetectionDecoder decoder = new DetectionDecoder(10, 0.5f);
+
+        assertEquals(0, decoder.decode(detection));
+        assertEquals(0, decoder.getCount());
+    }
+
+    @Test
+    public void decode_readsFlatDirectBuffer() {
+        FloatBuffer output = ByteBuffer.allocateDirect(4 * 3 * 6).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        output.put(row(0, 0.2f, 1f)).put(row(1, 0.9f, 1f)).put(row(2, 0.7f, 1f));
+
+        DetectionDecoder decoder = new DetectionDecoder(10, 0.5f);
+
+        assertEquals(2, decoder.decode(output, 6));
+        assertEquals(1f, decoder.get(DetectionDecoder.X, 0), 0f);
+        assertEquals(2f, decoder.get(DetectionDecoder.X, 1), 0f);
+    }
+
+    @Test
+    public void argMax_readsRowAtOffset() {
+        FloatBuffer output = FloatBuffer.wrap(new float[] {0.9f, 0.1f, 0f, 0.2f, 0.7f, 0.1f});
+
+        assertEquals(0, DetectionDecoder.argMax(output, 0, 3));
+        assertEquals(1, DetectionDecoder.argMax(output, 3, 3));
+    }
+
+    @Test
+    public void decode_quantizedMatchesDequantizedFloat() {
+        Quantization uint8 = new Quantization(1 / 255f, 0, false);
+        Quantization int8 = new Quantization(1 / 255f, -128, true);
+        Random random = new Random(7);
+        int rows = 500;
+        ByteBuffer unsigned = ByteBuffer.allocateDirect(rows * 6);
+        ByteBuffer signed = ByteBuffer.allocateDirect(rows * 6);
+        FloatBuffer reference = FloatBuffer.allocate(rows * 6);
+        for (int i = 0; i < rows * 6; i++) {
+            int raw = random.nextInt(256);
+            unsigned.put((byte) raw);
+            signed.put((byte) (raw - 128));
+            reference.put(uint8.dequantize(raw));
+        }
+
+        DetectionDecoder expected = new DetectionDecoder(10, 0.5f);
+        DetectionDecoder actual = new DetectionDecoder(10, 0.5f);
+        int count = expected.decode(reference, 6);
+
+        for (ByteBuffer output : new ByteBuffer[] {unsigned, signed}) {
+            assertEquals(count, actual.decode(output, 6, output == signed ? int8 : uint8));
+            for (int i = 0; i < count; i++) {
+                for (int field = 0; field < DetectionDecoder.FIELDS; field++) {
+                    assertEquals(expected.get(field, i), actual.get(field, i), 1e-6f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void argMax_quantizedSignedOrder() {
+        Quantization int8 = new Quantization(0.01f, 10, true);
+        ByteBuffer output = ByteBuffer.wrap(new byte[] {-100, 20, -5, 127, -128, 0});
+
+        assertEquals(1, DetectionDecoder.argMax(output, 0, 3, int8));
+        assertEquals(0, DetectionDecoder.argMax(output, 3, 3, int8));
+        assertEquals(0.1f, int8.dequantize(output, 1), 1e-6f);
+        assertEquals(20, int8.rawAtLeast(0.1f));
+    }
+}
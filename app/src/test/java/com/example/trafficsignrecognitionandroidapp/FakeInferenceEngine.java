@@ -0,0 +1,101 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Deterministic inference engine for local unit tests: writes scripted output, counts runs.
+ */
+class FakeInferenceEngine implements InferenceEngine {
+    private final int[] inputShape;
+    private final int[] outputShape;
+    private final Quantization inputQuantization;
+    private final Quantization outputQuantization;
+    private float[] scriptedOutput = new float[0];
+    private int runs;
+    private boolean closed;
+
+    FakeInferenceEngine(int[] inputShape, int[] outputShape) {
+        this(inputShape, outputShape, null, null);
+    }
+
+    FakeInferenceEngine(int[] inputShape, int[] outputShape, Quantization inputQuantization, Quantization outputQuantization) {
+        this.inputShape = inputShape.clone();
+        this.outputShape = outputShape.clone();
+        this.inputQuantization = inputQuantization;
+        this.outputQuantization = outputQuantization;
+    }
+
+    // first values of output on every run, rest of output zero (quantized outputs store nearest raw value)
+    void setOutput(float[] values) {
+        scriptedOutput = values.clone();
+    }
+
+    int getRuns() {
+        return runs;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int[] getInputShape() {
+        return inputShape.clone();
+    }
+
+    @Override
+    public int[] getOutputShape() {
+        return outputShape.clone();
+    }
+
+    @Override
+    public Quantization getInputQuantization() {
+        return inputQuantization;
+    }
+
+    @Override
+    public Quantization getOutputQuantization() {
+        return outputQuantization;
+    }
+
+    @Override
+    public boolean supportsBatchResize() {
+        return true;
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        System.arraycopy(shape, 0, inputShape, 0, inputShape.length);
+        outputShape[0] = shape[0];
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        if (closed) {
+            throw new IllegalStateException("Engine closed");
+        }
+        if (input.capacity() != getInputBytes() || output.capacity() < getOutputBytes()) {
+            throw new IllegalArgumentException("Buffer sizes " + input.capacity() + "/" + output.capacity()
+                    + " do not match shapes " + Arrays.toString(inputShape) + "/" + Arrays.toString(outputShape));
+        }
+
+        int elements = getOutputBytes() / (outputQuantization != null ? 1 : 4);
+        for (int i = 0; i < elements; i++) {
+            float value = i < scriptedOutput.length ? scriptedOutput[i] : 0;
+            if (outputQuantization != null) {
+                int raw = Math.round(value / outputQuantization.getScale()) + outputQuantization.getZeroPoint();
+                output.put(i, (byte) raw);
+            }
+            else {
+                output.putFloat(4 * i, value);
+            }
+        }
+        runs++;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for box back-projection between model input, region and frame.
+ */
+public class FrameTransformTest {
+    private static final float EPS = 1e-5F;
+
+    @Test
+    public void letterbox_mapsContentToSource() {
+        // 640x480 source in 640 input: content 640x480 with 80 pixels border on top and bottom
+        FrameTransform transform = new FrameTransform().setLetterbox(0, 80 / 640F, 1, 480 / 640F);
+
+        assertEquals(0, transform.mapY(80 / 640F), EPS);
+        assertEquals(1, transform.mapY(560 / 640F), EPS);
+        assertEquals(0.5F, transform.mapY(0.5F), EPS);
+        assertEquals(0.25F, transform.mapX(0.25F), EPS);
+        assertEquals(0.2F, transform.mapH(0.15F), EPS);
+    }
+
+    @Test
+    public void concat_regionThenLetterbox() {
+        FrameTransform letterbox = new FrameTransform().setLetterbox(0.25F, 0, 0.5F, 1);
+        FrameTransform transform = new FrameTransform().setRegion(0.5F, 0.5F, 0.5F, 0.5F).concat(letterbox);
+
+        // input center -> region center -> frame
+        assertEquals(0.75F, transform.mapX(0.5F), EPS);
+        assertEquals(0.75F, transform.mapY(0.5F), EPS);
+        // left edge of content -> left edge of region
+        assertEquals(0.5F, transform.mapX(0.25F), EPS);
+        assertEquals(0.5F, transform.mapW(0.5F), EPS);
+    }
+
+    @Test
+    public void setIdentity_keepsBoxes() {
+        FrameTransform transform = new FrameTransform().setRegion(0.1F, 0.2F, 0.3F, 0.4F).setIdentity();
+
+        assertTrue(transform.isIdentity());
+        assertEquals(0.3F, transform.mapX(0.3F), 0);
+    }
+
+    @Test
+    public void rotatedClockwise_mapsToCameraFrame() {
+        // rotated (x, y, w, h) -> frame (y, 1 - x, h, w)
+        FrameTransform transform = new FrameTransform().setRotatedClockwise();
+
+        assertTrue(transform.isSwapped());
+        assertEquals(0.6F, transform.mapX(0.2F, 0.6F), EPS);
+        assertEquals(0.8F, transform.mapY(0.2F, 0.6F), EPS);
+        assertEquals(0.3F, transform.mapW(0.1F, 0.3F), EPS);
+        assertEquals(0.1F, transform.mapH(0.1F, 0.3F), EPS);
+    }
+
+    @Test
+    public void invert_roundTrip() {
+        FrameTransform toFrame = new FrameTransform().setRotatedClockwise()
+                .concat(new FrameTransform().setLetterbox(0.25F, 0, 0.5F, 1));
+        FrameTransform fromFrame = new FrameTransform().set(toFrame).invert();
+
+        float x = toFrame.mapX(0.4F, 0.7F);
+        float y = toFrame.mapY(0.4F, 0.7F);
+        assertEquals(0.4F, fromFrame.mapX(x, y), EPS);
+        assertEquals(0.7F, fromFrame.mapY(x, y), EPS);
+        assertEquals(0.2F, fromFrame.mapW(toFrame.mapW(0.2F, 0.1F), toFrame.mapH(0.2F, 0.1F)), EPS);
+        assertTrue(new FrameTransform().set(toFrame).concat(fromFrame).isIdentity());
+    }
+
+    @Test
+    public void concat_rotationThenLetterbox() {
+        // content in middle half of input width -> full rotated frame -> camera frame
+        FrameTransform transform = new FrameTransform().setRotatedClockwise()
+                .concat(new FrameTransform().setLetterbox(0.25F, 0, 0.5F, 1));
+
+        // left edge of content = left of rotated frame = bottom of camera frame
+        assertEquals(1, transform.mapY(0.25F, 0.5F), EPS);
+        assertEquals(0, transform.mapY(0.75F, 0.5F), EPS);
+        assertEquals(0.5F, transform.mapX(0.25F, 0.5F), EPS);
+        assertEquals(0.5F, transform.mapH(0.25F, 0.1F), EPS);
+        assertEquals(0.1F, transform.mapW(0.25F, 0.1F), EPS);
+    }
+
+    @Test
+    public void mirror_flipsHorizontally() {
+        FrameTransform transform = new FrameTransform().setRotatedClockwise().mirror();
+
+        // frame x = 1 - rotated y, size unchanged
+        assertEquals(0.4F, transform.mapX(0.2F, 0.6F), EPS);
+        assertEquals(0.8F, transform.mapY(0.2F, 0.6F), EPS);
+        assertEquals(0.3F, transform.mapW(0.1F, 0.3F), EPS);
+    }
+}
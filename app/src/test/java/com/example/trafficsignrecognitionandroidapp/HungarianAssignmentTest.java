@@ -0,0 +1,94 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the track / detection assignment.
+ */
+public class HungarianAssignmentTest {
+    private static HungarianAssignment withCosts(float[][] costs) {
+        HungarianAssignment assignment = new HungarianAssignment(8);
+        for (int r = 0; r < costs.length; r++) {
+            for (int c = 0; c < costs[r].length; c++) {
+                assignment.setCost(r, c, costs[r][c]);
+            }
+        }
+        return assignment;
+    }
+
+    @Test
+    public void solve_findsMinimumNotGreedy() {
+        // greedy would take (0,0) = 1 and then (1,1) = 10
+        HungarianAssignment assignment = withCosts(new float[][] {{1, 2}, {2, 10}});
+
+        assertEquals(2, assignment.solve(2, 2));
+        assertEquals(1, assignment.getAssignment(0));
+        assertEquals(0, assignment.getAssignment(1));
+    }
+
+    @Test
+    public void solve_moreRowsThanColumnsLeavesRowsFree() {
+        HungarianAssignment assignment = withCosts(new float[][] {{0.9f}, {0.1f}, {0.5f}});
+
+        assertEquals(1, assignment.solve(3, 1));
+        assertEquals(-1, assignment.getAssignment(0));
+        assertEquals(0, assignment.getAssignment(1));
+        assertEquals(-1, assignment.getAssignment(2));
+    }
+
+    @Test
+    public void solve_matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 50; trial++) {
+            int rows = 1 + random.nextInt(4);
+            int cols = 1 + random.nextInt(4);
+            float[][] costs = new float[rows][cols];
+            for (float[] row : costs) {
+                for (int c = 0; c < cols; c++) {
+                    row[c] = random.nextFloat();
+                }
+            }
+
+            HungarianAssignment assignment = withCosts(costs);
+            assertEquals(Math.min(rows, cols), assignment.solve(rows, cols));
+
+            float total = 0;
+            boolean[] usedColumns = new boolean[cols];
+            for (int r = 0; r < rows; r++) {
+                int c = assignment.getAssignment(r);
+                if (c >= 0) {
+                    assertFalse(usedColumns[c]);
+                    usedColumns[c] = true;
+                    total += costs[r][c];
+                }
+            }
+            assertEquals(bruteForce(costs, 0, new boolean[cols]), total, 1e-5f);
+        }
+    }
+
+    private static float bruteForce(float[][] costs, int row, boolean[] usedColumns) {
+        if (row == costs.length) {
+            return 0;
+        }
+
+        // row can stay free only if there are more rows than columns
+        int freeRows = costs.length - row;
+        int freeColumns = 0;
+        for (boolean used : usedColumns) {
+            freeColumns += used ? 0 : 1;
+        }
+        float best = freeRows > freeColumns ? bruteForce(costs, row + 1, usedColumns) : Float.MAX_VALUE;
+        for (int c = 0; c < usedColumns.length; c++) {
+            if (!usedColumns[c]) {
+                usedColumns[c] = true;
+                best = Math.min(best, costs[row][c] + bruteForce(costs, row + 1, usedColumns));
+                usedColumns[c] = false;
+            }
+        }
+        return best;
+    }
+}
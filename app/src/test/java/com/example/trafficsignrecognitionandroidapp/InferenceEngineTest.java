@@ -0,0 +1,17 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the inference engine contract.
+ */
+public class InferenceEngineTest {
+    @Test
+    public void numBytes_dependsOnQuantization() {
+        int[] shape = {1, 640, 640, 3};
+        assertEquals(4 * 640 * 640 * 3, InferenceEngine.numBytes(shape, null));
+        assertEquals(640 * 640 * 3, InferenceEngine.numBytes(shape, new Quantization(1 / 255f, 0, false)));
+    }
+}
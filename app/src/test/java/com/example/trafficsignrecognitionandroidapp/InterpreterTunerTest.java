@@ -0,0 +1,46 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for stored interpreter profiles and model checksums.
+ */
+public class InterpreterTunerTest {
+    @Test
+    public void profile_roundTripsThroughStoredForm() {
+        InterpreterTuner.Profile profile = new InterpreterTuner.Profile(4, false, true);
+
+        InterpreterTuner.Profile parsed = InterpreterTuner.Profile.parse(profile.toString());
+
+        assertEquals(4, parsed.getThreads());
+        assertFalse(parsed.xnnpack);
+        assertTrue(parsed.fp16);
+    }
+
+    @Test
+    public void profile_rejectsMalformedValues() {
+        assertNull(InterpreterTuner.Profile.parse(null));
+        assertNull(InterpreterTuner.Profile.parse("4:1"));
+        assertNull(InterpreterTuner.Profile.parse("four:1:0"));
+    }
+
+    @Test
+    public void checksum_dependsOnContentNotPosition() {
+        ByteBuffer model = ByteBuffer.allocateDirect(200 * 1024);
+        for (int i = 0; i < model.capacity(); i++) {
+            model.put(i, (byte) i);
+        }
+        long checksum = InterpreterTuner.checksum(model);
+
+        model.position(1000);
+        assertEquals(checksum, InterpreterTuner.checksum(model));
+        assertEquals(1000, model.position());
+
+        model.put(150 * 1024, (byte) 1);
+        assertNotEquals(checksum, InterpreterTuner.checksum(model));
+    }
+}
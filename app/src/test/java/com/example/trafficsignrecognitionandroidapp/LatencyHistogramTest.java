@@ -0,0 +1,58 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the lock-free latency histogram.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void bucket_upperBoundContainsValue() {
+        for (long value = 0; value < 1000000; value += 37) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void percentile_withinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1000000);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50e6, histogram.getPercentile(50), 50e6 * 0.125);
+        assertEquals(95e6, histogram.getPercentile(95), 95e6 * 0.125);
+        assertEquals(99e6, histogram.getPercentile(99), 99e6 * 0.125);
+        assertEquals(100000000, histogram.getPercentile(100));
+        assertEquals(100000000, histogram.getMax());
+    }
+
+    @Test
+    public void record_fromManyThreadsKeepsAllValues() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40000, histogram.getCount());
+        assertEquals(9999, histogram.getMax());
+    }
+}
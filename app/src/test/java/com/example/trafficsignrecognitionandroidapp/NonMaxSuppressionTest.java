@@ -0,0 +1,98 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for IoU based non-maximum suppression.
+ */
+public class NonMaxSuppressionTest {
+    // two heavily overlapping boxes, one overlapping a little, one apart
+    private final float[] cx = {0.50f, 0.52f, 0.58f, 0.10f};
+    private final float[] cy = {0.50f, 0.50f, 0.50f, 0.10f};
+    private final float[] w = {0.10f, 0.10f, 0.10f, 0.05f};
+    private final float[] h = {0.10f, 0.10f, 0.10f, 0.05f};
+    private final float[] score = {0.80f, 0.90f, 0.70f, 0.60f};
+
+    @Test
+    public void greedy_keepsBestOfOverlappingBoxes() {
+        NonMaxSuppression nms = new NonMaxSuppression(10, 0.45f);
+
+        assertEquals(3, nms.apply(cx, cy, w, h, score, null, 4));
+        assertEquals(1, nms.getKept(0));
+        assertEquals(2, nms.getKept(1));
+        assertEquals(3, nms.getKept(2));
+    }
+
+    @Test
+    public void greedy_thresholdControlsSuppression() {
+        NonMaxSuppression nms = new NonMaxSuppression(10, 0.1f);
+        assertEquals(2, nms.apply(cx, cy, w, h, score, null, 4));
+
+        nms.setIouThreshold(0.95f);
+        assertEquals(4, nms.apply(cx, cy, w, h, score, null, 4));
+    }
+
+    @Test
+    public void classAware_keepsOverlappingBoxesOfOtherClass() {
+        NonMaxSuppression nms = new NonMaxSuppression(10, 0.45f);
+        nms.setClassAware(true);
+
+        assertEquals(4, nms.apply(cx, cy, w, h, score, new int[] {1, 2, 1, 1}, 4));
+        assertEquals(3, nms.apply(cx, cy, w, h, score, new int[] {1, 1, 1, 1}, 4));
+    }
+
+    @Test
+    public void soft_decaysInsteadOfRemoving() {
+        NonMaxSuppression nms = new NonMaxSuppression(10, 0.45f, NonMaxSuppression.SOFT_GAUSSIAN);
+        nms.setSoftParameters(0.5f, 0.001f);
+
+        assertEquals(4, nms.apply(cx, cy, w, h, score, null, 4));
+        assertEquals(1, nms.getKept(0));
+        assertEquals(0.9f, nms.getKeptScore(0), 0f);
+        for (int k = 1; k < 4; k++) {
+            assertTrue(nms.getKeptScore(k) <= nms.getKeptScore(k - 1));
+        }
+        assertTrue(nms.getKeptScore(3) < 0.8f);
+    }
+
+    @Test
+    public void decoderLayout_isSupported() {
+        int stride = 4;
+        float[] decoded = new float[DetectionDecoder.FIELDS * stride];
+        for (int i = 0; i < 4; i++) {
+            decoded[DetectionDecoder.SCORE * stride + i] = score[i];
+            decoded[DetectionDecoder.X * stride + i] = cx[i];
+            decoded[DetectionDecoder.Y * stride + i] = cy[i];
+            decoded[DetectionDecoder.W * stride + i] = w[i];
+            decoded[DetectionDecoder.H * stride + i] = h[i];
+        }
+
+        NonMaxSuppression nms = new NonMaxSuppression(stride, 0.45f);
+
+        assertEquals(3, nms.apply(decoded, stride, null, 4));
+        assertEquals(1, nms.getKept(0));
+    }
+
+    @Test
+    public void candidatesBeforeCap_keepSmallSign() {
+        // 20 anchors of one large sign outscore the only anchor of a small sign
+        float[][] detection = new float[21][];
+        for (int a = 0; a < 20; a++) {
+            detection[a] = new float[] {0.5f + 0.001f * a, 0.5f, 0.3f, 0.3f, 0.95f - 0.001f * a, 1f};
+        }
+        detection[20] = new float[] {0.1f, 0.1f, 0.04f, 0.04f, 0.7f, 1f};
+
+        // top 10 before suppression -> only duplicates of large sign
+        DetectionDecoder topK = new DetectionDecoder(10, 0.5f);
+        NonMaxSuppression topKNms = new NonMaxSuppression(10, 0.45f);
+        assertEquals(1, topKNms.apply(topK.getResult(), topK.getMaxDetections(), null, topK.decode(detection)));
+
+        // all candidates suppressed first -> both signs
+        DetectionDecoder candidates = new DetectionDecoder(300, 0.5f);
+        NonMaxSuppression nms = new NonMaxSuppression(300, 0.45f);
+        assertEquals(2, nms.apply(candidates.getResult(), candidates.getMaxDetections(), null, candidates.decode(detection)));
+        assertEquals(0.1f, candidates.get(DetectionDecoder.X, nms.getKept(1)), 0f);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the per-sign recognition cache and its temporal voting.
+ */
+public class RecognitionCacheTest {
+    private static final int CLASSES = 4;
+
+    private static FloatBuffer probabilities(int winner, float score) {
+        float[] values = new float[CLASSES];
+        for (int c = 0; c < CLASSES; c++) {
+            values[c] = c == winner ? score : (1 - score) / (CLASSES - 1);
+        }
+        return FloatBuffer.wrap(values);
+    }
+
+    // one frame with one box, returns true if classifier had to run
+    private static boolean frame(RecognitionCache cache, float x, float size, FloatBuffer output) {
+        cache.beginFrame();
+        int entry = cache.lookup(x, 0.5F, size, size);
+        if (cache.needsRecognition(entry)) {
+            cache.vote(entry, output, 0, CLASSES);
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void stableSign_recognizedFewTimes() {
+        RecognitionCache cache = new RecognitionCache(4, CLASSES);
+        cache.setReverify(1000, 1.5F);
+
+        // sign moves slowly across 60 frames
+        int invocations = 0;
+        for (int i = 0; i < 60; i++) {
+            invocations += frame(cache, 0.2F + i * 0.002F, 0.1F, probabilities(2, 0.99F)) ? 1 : 0;
+        }
+
+        assertEquals(2, invocations);
+        assertEquals(58, cache.getHitCount());
+        cache.beginFrame();
+        int entry = cache.lookup(0.32F, 0.5F, 0.1F, 0.1F);
+        assertEquals(2, cache.getClassId(entry));
+        assertEquals(0.99F, cache.getClassScore(entry), 1e-4F);
+    }
+
+    @Test
+    public void uncertainVote_keepsRecognizing() {
+        RecognitionCache cache = new RecognitionCache(4, CLASSES);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(frame(cache, 0.5F, 0.1F, probabilities(i % 2, 0.6F)));
+        }
+    }
+
+    @Test
+    public void reverifyInterval_recognizesAgain() {
+        RecognitionCache cache = new RecognitionCache(4, CLASSES);
+        cache.setReverify(5, 1.5F);
+
+        boolean[] invoked = new boolean[12];
+        for (int i = 0; i < invoked.length; i++) {
+            invoked[i] = frame(cache, 0.5F, 0.1F, probabilities(1, 0.95F));
+        }
+
+        assertTrue(invoked[0]);
+        assertTrue(invoked[1]);
+        assertFalse(invoked[2]);
+        assertTrue(invoked[6]);
+        assertTrue(invoked[11]);
+    }
+
+    @Test
+    public void scaleChange_recognizesAgain() {
+        RecognitionCache cache = new RecognitionCache(4, CLASSES);
+        frame(cache, 0.5F, 0.1F, probabilities(1, 0.95F));
+        frame(cache, 0.5F, 0.1F, probabilities(1, 0.95F));
+        assertFalse(frame(cache, 0.5F, 0.11F, probabilities(1, 0.95F)));
+
+        // sign approaching: area x1.7 since last recognition
+        assertTrue(frame(cache, 0.5F, 0.13F, probabilities(1, 0.95F)));
+    }
+
+    @Test
+    public void lookup_separateSignsAndExpiry() {
+        RecognitionCache cache = new RecognitionCache(4, CLASSES);
+        cache.setMaxAge(2);
+        cache.beginFrame();
+        int left = cache.lookup(0.2F, 0.5F, 0.1F, 0.1F);
+        int right = cache.lookup(0.8F, 0.5F, 0.1F, 0.1F);
+        cache.vote(left, probabilities(0, 0.9F), 0, CLASSES);
+        cache.vote(right, probabilities(3, 0.9F), 0, CLASSES);
+        assertNotEquals(left, right);
+
+        cache.beginFrame();
+        assertEquals(right, cache.lookup(0.81F, 0.5F, 0.1F, 0.1F));
+        assertEquals(3, cache.getClassId(right));
+
+        // left sign not seen for 3 frames -> forgotten, new entry without votes
+        cache.beginFrame();
+        cache.beginFrame();
+        cache.beginFrame();
+        int again = cache.lookup(0.2F, 0.5F, 0.1F, 0.1F);
+        assertEquals(0, cache.getClassScore(again), 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the detection and recognition pipeline, driven by fake engines (no OpenCV, no TFLite).
+ */
+public class SignRecognitionTest {
+    private static final int ROWS = 25200;
+    private static final int ROW_LENGTH = 6;
+    private static final int CLASSES = 43;
+
+    private FakeInferenceEngine detectionEngine;
+    private FakeInferenceEngine recognitionEngine;
+    private List<String> labels;
+
+    @Before
+    public void setUp() {
+        detectionEngine = new FakeInferenceEngine(new int[] {1, 640, 640, 3}, new int[] {1, ROWS, ROW_LENGTH});
+        recognitionEngine = new FakeInferenceEngine(new int[] {1, 48, 48, 3}, new int[] {1, CLASSES});
+        labels = new ArrayList<>();
+        for (int c = 0; c < CLASSES; c++) {
+            labels.add("sign " + c);
+        }
+    }
+
+    private SignRecognition signRecognition() {
+        return new SignRecognition(ModelConfig.DEFAULT, detectionEngine, recognitionEngine, labels);
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static float[] detectionRows() {
+        // two signs, duplicate of first one, one below confidence
+        return new float[] {
+                0.3f, 0.3f, 0.1f, 0.1f, 0.9f, 1f,
+                0.31f, 0.3f, 0.1f, 0.1f, 0.8f, 1f,
+                0.7f, 0.6f, 0.2f, 0.2f, 0.7f, 1f,
+                0.5f, 0.5f, 0.1f, 0.1f, 0.3f, 1f};
+    }
+
+    @Test
+    public void detectBoxes_keepsSuppressedBoxesBestFirst() {
+        detectionEngine.setOutput(detectionRows());
+        SignRecognition signRecognition = signRecognition();
+        DetectionBatch batch = new DetectionBatch(10);
+
+        int crops = signRecognition.detectBoxes(direct(detectionEngine.getInputBytes()), 640, 640, batch, null,
+                new FrameTransform().setIdentity());
+
+        assertEquals(1, detectionEngine.getRuns());
+        assertEquals(2, batch.getCount());
+        assertEquals(2, crops);
+        assertEquals(0.9f, batch.detectionScore[0], 1e-6f);
+        assertEquals(0.3f, batch.x[0], 1e-6f);
+        assertEquals(0.7f, batch.detectionScore[1], 1e-6f);
+        assertEquals(0.7f, batch.x[1], 1e-6f);
+    }
+
+    @Test
+    public void detectBoxes_quantizedOutputLikeFloat() {
+        Quantization quantization = new Quantization(1 / 255f, 0, false);
+        detectionEngine = new FakeInferenceEngine(new int[] {1, 640, 640, 3}, new int[] {1, ROWS, ROW_LENGTH},
+                quantization, quantization);
+        detectionEngine.setOutput(detectionRows());
+        SignRecognition signRecognition = signRecognition();
+        DetectionBatch batch = new DetectionBatch(10);
+
+        signRecognition.detectBoxes(direct(detectionEngine.getInputBytes()), 640, 640, batch, null,
+                new FrameTransform().setIdentity());
+
+        assertEquals(2, batch.getCount());
+        assertEquals(0.9f, batch.detectionScore[0], 1f / 255);
+        assertEquals(0.7f, batch.x[1], 1f / 255);
+    }
+
+    @Test
+    public void constructor_sizesRecognitionBatchOnce() {
+        signRecognition();
+
+        // resized to one slot for each detection, warm-up run allocates tensors
+        assertEquals(10, recognitionEngine.getInputShape()[0]);
+        assertEquals(1, recognitionEngine.getRuns());
+        assertEquals(0, detectionEngine.getRuns());
+    }
+
+    @Test
+    public void close_closesBothEngines() {
+        SignRecognition signRecognition = signRecognition();
+        signRecognition.close();
+
+        assertTrue(detectionEngine.isClosed());
+        assertTrue(recognitionEngine.isClosed());
+
+        // closed -> empty results, engines not run again
+        DetectionBatch batch = new DetectionBatch(10);
+        batch.add(0.5f, 0.5f, 0.1f, 0.1f, 0.9f);
+        assertEquals(0, signRecognition.inferFrame(null, batch).getCount());
+        assertEquals(0, detectionEngine.getRuns());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the track lifecycle (motion model replaced by a constant one, no native filter).
+ */
+public class SignTrackerTest {
+
+    // box stays where it was last measured
+    private static class StillMotion implements SignTracker.Motion {
+        private final float[] state = new float[4];
+        private boolean released;
+
+        @Override
+        public void start(float[] box) {
+            System.arraycopy(box, 0, state, 0, 4);
+        }
+
+        @Override
+        public void predict(float[] box) {
+            System.arraycopy(state, 0, box, 0, 4);
+        }
+
+        @Override
+        public void correct(float[] box) {
+            System.arraycopy(box, 0, state, 0, 4);
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+
+    private final List<StillMotion> motions = new ArrayList<>();
+    private final List<Integer> confirmed = new ArrayList<>();
+    private SignTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new SignTracker(4, 4, () -> {
+            StillMotion motion = new StillMotion();
+            motions.add(motion);
+            return motion;
+        });
+        tracker.setConfirmHits(3);
+        tracker.setMaxLostFrames(4);
+        tracker.setMaxCoastFrames(2);
+        tracker.setListener(track -> confirmed.add(track.getId()));
+    }
+
+    private static DetectionBatch frame(float... xs) {
+        DetectionBatch batch = new DetectionBatch(4);
+        for (float x : xs) {
+            int i = batch.add(x, 0.5f, 0.1f, 0.1f, 0.9f);
+            batch.setClass(i, 7, 0.8f);
+        }
+        return batch;
+    }
+
+    @Test
+    public void update_confirmsOncePerSign() {
+        DetectionBatch batch = null;
+        for (int f = 0; f < 5; f++) {
+            batch = frame(0.3f + 0.01f * f);
+            tracker.update(batch);
+        }
+
+        assertEquals(1, tracker.getTrackCount());
+        assertEquals(SignTracker.CONFIRMED, tracker.getTrack(0).getState());
+        assertEquals(1, confirmed.size());
+        assertEquals(confirmed.get(0).intValue(), batch.trackId[0]);
+        assertEquals(7, tracker.getTrack(0).getClassId());
+    }
+
+    @Test
+    public void update_tentativeMissedOnceIsDeleted() {
+        tracker.update(frame(0.3f));
+        tracker.update(frame());
+
+        assertEquals(0, tracker.getTrackCount());
+        assertTrue(confirmed.isEmpty());
+    }
+
+    @Test
+    public void writeTracks_coastsLostTrackThenDrops() {
+        for (int f = 0; f < 3; f++) {
+            tracker.update(frame(0.3f));
+        }
+        int id = confirmed.get(0);
+        DetectionBatch out = new DetectionBatch(4);
+
+        // missed -> lost, still drawn at predicted box while coasting
+        for (int f = 1; f <= 2; f++) {
+            tracker.update(frame());
+            assertEquals(SignTracker.LOST, tracker.getTrack(0).getState());
+            assertEquals(1, tracker.writeTracks(out).getCount());
+            assertEquals(id, out.trackId[0]);
+            assertEquals(0.3f, out.x[0], 1e-6f);
+        }
+
+        // kept for matching but not drawn anymore
+        tracker.update(frame());
+        assertEquals(1, tracker.getTrackCount());
+        assertEquals(0, tracker.writeTracks(out).getCount());
+
+        // seen again -> same id, no second event
+        DetectionBatch batch = frame(0.3f);
+        tracker.update(batch);
+        assertEquals(id, batch.trackId[0]);
+        assertEquals(SignTracker.CONFIRMED, tracker.getTrack(0).getState());
+        assertEquals(1, confirmed.size());
+    }
+
+    @Test
+    public void update_lostTrackDeletedAfterMaxLostFrames() {
+        for (int f = 0; f < 3; f++) {
+            tracker.update(frame(0.3f));
+        }
+        for (int f = 0; f < 5; f++) {
+            tracker.update(frame());
+        }
+
+        assertEquals(0, tracker.getTrackCount());
+
+        // recycled track starts a new sign with a new id
+        DetectionBatch batch = frame(0.3f);
+        tracker.update(batch);
+        assertNotEquals(confirmed.get(0).intValue(), batch.trackId[0]);
+        assertEquals(1, motions.size());
+    }
+
+    @Test
+    public void update_separateSignsKeepTheirIds() {
+        DetectionBatch first = frame(0.2f, 0.7f);
+        tracker.update(first);
+        DetectionBatch second = frame(0.71f, 0.21f);
+        tracker.update(second);
+
+        assertEquals(first.trackId[0], second.trackId[1]);
+        assertEquals(first.trackId[1], second.trackId[0]);
+        assertNotEquals(first.trackId[0], first.trackId[1]);
+    }
+
+    @Test
+    public void release_releasesMotionOfAllTracks() {
+        tracker.update(frame(0.2f, 0.7f));
+        tracker.release();
+
+        assertEquals(2, motions.size());
+        for (StillMotion motion : motions) {
+            assertTrue(motion.released);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the pooled model input buffers.
+ */
+public class TensorBufferPoolTest {
+    @Test
+    public void acquire_reusesBufferForSameShape() {
+        TensorBufferPool pool = new TensorBufferPool();
+
+        TensorBufferPool.InputTensor first = pool.acquire(1, 640, 3, false);
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, pool.acquire(1, 640, 3, false));
+        }
+
+        assertEquals(1, pool.getAllocationCount());
+    }
+
+    @Test
+    public void acquire_allocatesOncePerShape() {
+        TensorBufferPool pool = new TensorBufferPool();
+
+        for (int i = 0; i < 10; i++) {
+            pool.acquire(1, 640, 3, false);
+            pool.acquire(1, 48, 3, false);
+            pool.acquire(1, 48, 3, true);
+        }
+
+        assertEquals(3, pool.getAllocationCount());
+        assertEquals(4 * 640 * 640 * 3, pool.acquire(1, 640, 3, false).getBuffer().capacity());
+        assertEquals(48 * 48 * 3, pool.acquire(1, 48, 3, true).getBuffer().capacity());
+    }
+
+    @Test
+    public void acquire_copiesAreDistinctBuffers() {
+        // ping-pong slots of pipelined preprocessing
+        TensorBufferPool pool = new TensorBufferPool();
+
+        TensorBufferPool.InputTensor first = pool.acquire(1, 320, 3, false, 1);
+        TensorBufferPool.InputTensor second = pool.acquire(1, 320, 3, false, 2);
+
+        assertNotSame(first, second);
+        assertNotSame(first.getBuffer(), second.getBuffer());
+        assertSame(first, pool.acquire(1, 320, 3, false, 1));
+        assertSame(second, pool.acquire(1, 320, 3, false, 2));
+        assertEquals(2, pool.getAllocationCount());
+    }
+
+    @Test
+    public void acquire_batchHoldsAllSlots() {
+        // recognition crops of one frame in one tensor
+        TensorBufferPool.InputTensor tensor = new TensorBufferPool().acquire(10, 48, 3, false);
+
+        assertEquals(4 * 10 * 48 * 48 * 3, tensor.getBuffer().capacity());
+    }
+
+    @Test
+    public void getBuffer_rewoundDirectNativeOrder() {
+        TensorBufferPool.InputTensor tensor = new TensorBufferPool().acquire(1, 4, 3, false);
+        ByteBuffer buffer = tensor.getBuffer();
+        buffer.putFloat(0.5F);
+        buffer.putFloat(0.25F);
+
+        ByteBuffer again = tensor.getBuffer();
+
+        assertSame(buffer, again);
+        assertEquals(0, again.position());
+        assertTrue(again.isDirect());
+        assertEquals(ByteOrder.nativeOrder(), again.order());
+        assertEquals(0.25F, again.getFloat(4), 0);
+    }
+
+    @Test
+    public void clear_allocatesAgain() {
+        TensorBufferPool pool = new TensorBufferPool();
+        TensorBufferPool.InputTensor first = pool.acquire(1, 48, 3, true);
+
+        pool.clear();
+
+        assertNotSame(first, pool.acquire(1, 48, 3, true));
+        assertEquals(2, pool.getAllocationCount());
+    }
+}
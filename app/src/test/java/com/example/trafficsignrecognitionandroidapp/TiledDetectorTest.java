@@ -0,0 +1,41 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the tile layout of tiled still image detection.
+ */
+public class TiledDetectorTest {
+    @Test
+    public void tileOrigins_coverLengthWithOverlap() {
+        int[] origins = new int[16];
+
+        int count = TiledDetector.tileOrigins(4000, 640, 0.2F, origins);
+
+        assertEquals(count, TiledDetector.tileOrigins(4000, 640, 0.2F, null));
+        assertEquals(0, origins[0]);
+        assertEquals(4000 - 640, origins[count - 1]);
+        for (int i = 1; i < count; i++) {
+            int step = origins[i] - origins[i - 1];
+            assertTrue(step > 0);
+            assertTrue(640 - step >= 0.2F * 640);
+        }
+    }
+
+    @Test
+    public void tileOrigins_shortSideSingleTile() {
+        int[] origins = new int[4];
+
+        assertEquals(1, TiledDetector.tileOrigins(480, 640, 0.2F, origins));
+        assertEquals(0, origins[0]);
+        assertEquals(1, TiledDetector.tileOrigins(640, 640, 0.2F, origins));
+    }
+
+    @Test
+    public void tileOrigins_twelveMegapixelGrid() {
+        assertEquals(8, TiledDetector.tileOrigins(4000, 640, 0.2F, null));
+        assertEquals(6, TiledDetector.tileOrigins(3000, 640, 0.2F, null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the fused camera YUV to model input kernel.
+ */
+public class YuvTensorKernelTest {
+    private static final float EPS = 1e-6F;
+
+    private static byte[] frame(int width, int height, int luma, int u, int v, boolean nv21) {
+        byte[] yuv = new byte[width * height * 3 / 2];
+        Arrays.fill(yuv, 0, width * height, (byte) luma);
+        int chroma = width * height / 4;
+        for (int i = 0; i < chroma; i++) {
+            if (nv21) {
+                yuv[width * height + 2 * i] = (byte) v;
+                yuv[width * height + 2 * i + 1] = (byte) u;
+            }
+            else {
+                yuv[width * height + i] = (byte) v;
+                yuv[width * height + chroma + i] = (byte) u;
+            }
+        }
+        return yuv;
+    }
+
+    private static ByteBuffer tensor(int inputSize, int bytesPerValue) {
+        return ByteBuffer.allocateDirect(inputSize * inputSize * 3 * bytesPerValue).order(ByteOrder.nativeOrder());
+    }
+
+    @Test
+    public void convert_grayFrameNormalized() {
+        YuvTensorKernel kernel = new YuvTensorKernel(4);
+        ByteBuffer input = tensor(4, 4);
+        byte[] rgba = new byte[4 * 4 * 4];
+        kernel.convert(frame(8, 4, 128, 128, 128, true), 8, 4, true, input, rgba);
+
+        // 1.164 * (128 - 16) = 130
+        FloatBuffer values = input.asFloatBuffer();
+        for (int i = 0; i < values.capacity(); i++) {
+            assertEquals(130 / 255F, values.get(i), EPS);
+        }
+        assertEquals(130, rgba[0] & 0xFF);
+        assertEquals(255, rgba[3] & 0xFF);
+        assertTrue(kernel.getTransform().isIdentity());
+    }
+
+    @Test
+    public void convert_rotatesClockwise() {
+        // bright top rows of landscape frame -> right side of rotated input
+        int width = 8, height = 4;
+        byte[] yuv = frame(width, height, 16, 128, 128, true);
+        Arrays.fill(yuv, 0, 2 * width, (byte) 235);
+
+        YuvTensorKernel kernel = new YuvTensorKernel(4);
+        ByteBuffer input = tensor(4, 4);
+        kernel.convert(yuv, width, height, true, input, new byte[4 * 4 * 4]);
+
+        FloatBuffer values = input.asFloatBuffer();
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                float expected = x >= 2 ? 255 / 255F : 0;
+                assertEquals("pixel " + x + "," + y, expected, values.get((y * 4 + x) * 3), 1 / 255F);
+            }
+        }
+    }
+
+    @Test
+    public void convert_letterboxPadsSides() {
+        // rotated frame 4x8 in 8x8 input -> content 4 wide, 2 columns of border each side
+        YuvTensorKernel kernel = new YuvTensorKernel(8);
+        kernel.setLetterbox(true);
+        ByteBuffer input = tensor(8, 4);
+        kernel.convert(frame(8, 4, 235, 128, 128, true), 8, 4, true, input, new byte[8 * 8 * 4]);
+
+        FloatBuffer values = input.asFloatBuffer();
+        assertEquals(114 / 255F, values.get(0), EPS);
+        assertEquals(114 / 255F, values.get(7 * 3), EPS);
+        assertEquals(1F, values.get(2 * 3), EPS);
+        assertEquals(0, kernel.getTransform().mapX(0.25F), EPS);
+        assertEquals(1, kernel.getTransform().mapX(0.75F), EPS);
+    }
+
+    @Test
+    public void convert_int8Output() {
+        YuvTensorKernel kernel = new YuvTensorKernel(4);
+        kernel.setOutput(true, new Quantization(1 / 255F, -128, true));
+        ByteBuffer input = tensor(4, 1);
+        kernel.convert(frame(8, 4, 128, 128, 128, true), 8, 4, true, input, new byte[4 * 4 * 4]);
+
+        assertEquals(130 - 128, input.get(0));
+        assertEquals(130 - 128, input.get(input.capacity() - 1));
+    }
+
+    @Test
+    public void convert_nv21AndYv12Agree() {
+        YuvTensorKernel kernel = new YuvTensorKernel(4);
+        byte[] fromNv21 = new byte[4 * 4 * 4];
+        byte[] fromYv12 = new byte[4 * 4 * 4];
+        kernel.convert(frame(8, 4, 100, 90, 220, true), 8, 4, true, tensor(4, 4), fromNv21);
+        kernel.convert(frame(8, 4, 100, 90, 220, false), 8, 4, false, tensor(4, 4), fromYv12);
+
+        assertArrayEquals(fromNv21, fromYv12);
+
+        // strong V -> red dominates
+        assertTrue((fromNv21[0] & 0xFF) > (fromNv21[1] & 0xFF));
+        assertTrue((fromNv21[0] & 0xFF) > (fromNv21[2] & 0xFF));
+    }
+}
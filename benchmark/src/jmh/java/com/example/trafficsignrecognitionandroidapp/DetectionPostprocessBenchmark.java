@@ -0,0 +1,116 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DetectionPostprocessBenchmark {
+
+    // same settings as SignRecognition
+    private static final int NUMBER_OF_DETECTION = 10;
+    private static final int NUMBER_OF_CANDIDATES = 300;
+    private static final float CONFIDENCE = 0.5F;
+    private static final float IOU_THRESHOLD = 0.45F;
+
+    @Param({"0", "3", "10"})
+    public int signs;
+
+    @Param({"42"})
+    public long seed;
+
+    private FloatBuffer detection;
+    private ByteBuffer quantizedDetection;
+    private final Quantization quantization = new Quantization(1 / 255F, 0, false);
+    private FloatBuffer recognition;
+    private DetectionDecoder detectionDecoder;
+    private NonMaxSuppression nonMaxSuppression;
+    private DetectionBatchPool detectionBatchPool;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        detection = PipelineFixtures.toDirectBuffer(PipelineFixtures.detectionOutput(seed, signs));
+        quantizedDetection = ByteBuffer.allocateDirect(detection.limit());
+        for (int i = 0; i < detection.limit(); i++) {
+            quantizedDetection.put(i, (byte) Math.max(0, Math.min(255, Math.round(detection.get(i) * 255))));
+        }
+        recognition = PipelineFixtures.toDirectBuffer(PipelineFixtures.recognitionOutput(seed, NUMBER_OF_DETECTION));
+        detectionDecoder = new DetectionDecoder(NUMBER_OF_CANDIDATES, CONFIDENCE);
+        nonMaxSuppression = new NonMaxSuppression(NUMBER_OF_CANDIDATES, IOU_THRESHOLD);
+        detectionBatchPool = new DetectionBatchPool(NUMBER_OF_DETECTION);
+    }
+
+    /*------------------------------*/
+    /* YOLO output -> candidates    */
+    /*------------------------------*/
+    @Benchmark
+    public int decode() {
+        return detectionDecoder.decode(detection, PipelineFixtures.FIELDS);
+    }
+
+    /*------------------------------------------*/
+    /* uint8 YOLO output -> candidates (raw)    */
+    /*------------------------------------------*/
+    @Benchmark
+    public int decodeQuantized() {
+        return detectionDecoder.decode(quantizedDetection, PipelineFixtures.FIELDS, quantization);
+    }
+
+    /*------------------------------*/
+    /* Candidates -> NMS            */
+    /*------------------------------*/
+    @Benchmark
+    public int decodeAndSuppress() {
+        int count = detectionDecoder.decode(detection, PipelineFixtures.FIELDS);
+        return nonMaxSuppression.apply(detectionDecoder.getResult(), detectionDecoder.getMaxDetections(), null, count);
+    }
+
+    /*------------------------------*/
+    /* Recognition argmax           */
+    /*------------------------------*/
+    @Benchmark
+    public void argMax(Blackhole blackhole) {
+        for (int c = 0; c < NUMBER_OF_DETECTION; c++) {
+            blackhole.consume(DetectionDecoder.argMax(recognition, c * PipelineFixtures.CLASSES, PipelineFixtures.CLASSES));
+        }
+    }
+
+    /*------------------------------------------------------*/
+    /* Whole postprocess, as SignRecognition.detectBoxes    */
+    /*------------------------------------------------------*/
+    @Benchmark
+    public DetectionBatch postprocess() {
+        DetectionBatch batch = detectionBatchPool.acquire();
+
+        int count = detectionDecoder.decode(detection, PipelineFixtures.FIELDS);
+        int kept = nonMaxSuppression.apply(detectionDecoder.getResult(), detectionDecoder.getMaxDetections(), null, count);
+        for (int k = 0; k < kept && k < NUMBER_OF_DETECTION; k++) {
+            int d = nonMaxSuppression.getKept(k);
+            int i = batch.add(detectionDecoder.get(DetectionDecoder.X, d),
+                    detectionDecoder.get(DetectionDecoder.Y, d),
+                    detectionDecoder.get(DetectionDecoder.W, d),
+                    detectionDecoder.get(DetectionDecoder.H, d),
+                    detectionDecoder.get(DetectionDecoder.SCORE, d));
+            int offset = k * PipelineFixtures.CLASSES;
+            int predClass = DetectionDecoder.argMax(recognition, offset, PipelineFixtures.CLASSES);
+            batch.setClass(i, predClass, recognition.get(offset + predClass));
+        }
+
+        batch.recycle();
+        return batch;
+    }
+}
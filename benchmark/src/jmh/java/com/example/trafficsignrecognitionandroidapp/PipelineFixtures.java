@@ -0,0 +1,139 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+public class PipelineFixtures {
+
+    // detection model output shape [1][ROWS][FIELDS] (x, y, w, h, objectness, class)
+    public static final int ROWS = 25200;
+    public static final int FIELDS = 6;
+
+    // recognition model output classes
+    public static final int CLASSES = 43;
+
+    private PipelineFixtures() {
+    }
+
+    /*---------------------------------------------------------------*/
+    /* Detection output: recorded file if given, otherwise synthetic */
+    /*---------------------------------------------------------------*/
+    public static float[][] detectionOutput(long seed, int signs) throws IOException {
+        String path = System.getProperty("benchmark.fixture");
+        if (path != null) {
+            return loadDetectionOutput(new File(path));
+        }
+        return syntheticDetectionOutput(seed, signs);
+    }
+
+    /*-----------------------------------------------------------------*/
+    /* Mostly background rows + clusters of overlapping boxes per sign */
+    /*-----------------------------------------------------------------*/
+    public static float[][] syntheticDetectionOutput(long seed, int signs) {
+        Random random = new Random(seed);
+        float[][] output = new float[ROWS][FIELDS];
+
+        for (float[] row : output) {
+            row[0] = random.nextFloat();
+            row[1] = random.nextFloat();
+            row[2] = 0.02F + 0.1F * random.nextFloat();
+            row[3] = 0.02F + 0.1F * random.nextFloat();
+            row[4] = 0.05F * random.nextFloat(); // background objectness
+            row[5] = random.nextFloat();
+        }
+
+        // each sign -> about 20 anchors around same box, like real YOLO output before NMS
+        for (int s = 0; s < signs; s++) {
+            float x = 0.1F + 0.8F * random.nextFloat();
+            float y = 0.1F + 0.8F * random.nextFloat();
+            float size = 0.03F + 0.1F * random.nextFloat();
+            for (int a = 0; a < 20; a++) {
+                float[] row = output[random.nextInt(ROWS)];
+                row[0] = x + 0.005F * (float) random.nextGaussian();
+                row[1] = y + 0.005F * (float) random.nextGaussian();
+                row[2] = size * (1 + 0.05F * (float) random.nextGaussian());
+                row[3] = size * (1 + 0.05F * (float) random.nextGaussian());
+                row[4] = 0.6F + 0.4F * random.nextFloat();
+                row[5] = 0.8F + 0.2F * random.nextFloat();
+            }
+        }
+
+        return output;
+    }
+
+    /*----------------------------------------------------------*/
+    /* Recorded output: ROWS * FIELDS little endian float32     */
+    /*----------------------------------------------------------*/
+    public static float[][] loadDetectionOutput(File file) throws IOException {
+        byte[] bytes = new byte[ROWS * FIELDS * 4];
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file));
+             DataInputStream data = new DataInputStream(in)) {
+            data.readFully(bytes);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        float[][] output = new float[ROWS][FIELDS];
+        for (float[] row : output) {
+            for (int f = 0; f < FIELDS; f++) {
+                row[f] = buffer.getFloat();
+            }
+        }
+        return output;
+    }
+
+    /*------------------------------------------*/
+    /* Softmax like recognition output batch    */
+    /*------------------------------------------*/
+    public static float[][] recognitionOutput(long seed, int batchSize) {
+        Random random = new Random(seed);
+        float[][] output = new float[batchSize][CLASSES];
+
+        for (float[] row : output) {
+            for (int c = 0; c < CLASSES; c++) {
+                row[c] = random.nextFloat() * 0.002F;
+            }
+            row[random.nextInt(CLASSES)] = 0.9F + 0.1F * random.nextFloat();
+        }
+        return output;
+    }
+
+    /*------------------------------------------------*/
+    /* Rows -> flat native buffer, as bound to model  */
+    /*------------------------------------------------*/
+    public static FloatBuffer toDirectBuffer(float[][] rows) {
+        FloatBuffer buffer = ByteBuffer.allocateDirect(4 * rows.length * rows[0].length)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        for (float[] row : rows) {
+            buffer.put(row);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /*------------------------------------------------*/
+    /* Synthetic NV21 camera frame (gradient + noise) */
+    /*------------------------------------------------*/
+    public static byte[] nv21Frame(int width, int height, long seed) {
+        Random random = new Random(seed);
+        byte[] yuv = new byte[width * height * 3 / 2];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                yuv[i * width + j] = (byte) (16 + (i + j) * 219 / (width + height) + random.nextInt(16));
+            }
+        }
+        // interleaved V U, one pair for each 2x2 block
+        for (int c = width * height; c < yuv.length; c++) {
+            yuv[c] = (byte) (96 + random.nextInt(64));
+        }
+        return yuv;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trafficsignrecognitionandroidapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TensorPackingBenchmark {
+
+    // camera preview frame (NV21, max frame size 640) -> detection model input
+    private static final int FRAME_WIDTH = 640;
+    private static final int FRAME_HEIGHT = 480;
+    private static final int INPUT_SIZE = 640;
+
+    @Param({"false", "true"})
+    public boolean quantized;
+
+    @Param({"true", "false"})
+    public boolean letterbox;
+
+    private TensorBufferPool tensorBufferPool;
+    private YuvTensorKernel kernel;
+    private ByteBuffer tensor;
+    private byte[] yuv;
+    private byte[] rgba;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tensorBufferPool = new TensorBufferPool();
+        tensor = tensorBufferPool.acquire(1, INPUT_SIZE, 3, quantized).getBuffer();
+        kernel = new YuvTensorKernel(INPUT_SIZE);
+        kernel.setOutput(quantized, null);
+        kernel.setLetterbox(letterbox);
+        yuv = PipelineFixtures.nv21Frame(FRAME_WIDTH, FRAME_HEIGHT, 42);
+        rgba = new byte[INPUT_SIZE * INPUT_SIZE * 4];
+    }
+
+    /*------------------------------------------------------*/
+    /* Camera YUV -> rotated, resized model input (camera)  */
+    /*------------------------------------------------------*/
+    @Benchmark
+    public ByteBuffer yuvToTensor() {
+        kernel.convert(yuv, FRAME_WIDTH, FRAME_HEIGHT, true, tensor, rgba);
+        return tensor;
+    }
+
+    /*------------------------------*/
+    /* Pooled lookup on hot path    */
+    /*------------------------------*/
+    @Benchmark
+    public TensorBufferPool.InputTensor acquire() {
+        return tensorBufferPool.acquire(1, INPUT_SIZE, 3, quantized);
+    }
+}
@@ -200,6 +200,27 @@ public abstract class CameraBridgeViewBase extends SurfaceView implements Surfac
         public Mat gray();
     };
 
+    /**
+     * Frame that also exposes the camera YUV buffer, so that consumers can convert only the pixels they need
+     * Attention: Same lifetime as CvCameraViewFrame, copy the buffer to keep it after the callback
+     */
+    public interface CvCameraViewYuvFrame extends CvCameraViewFrame {
+
+        /**
+         * This method returns single channel Mat with Y plane followed by chroma planes (height * 3 / 2 rows)
+         */
+        public Mat yuv();
+
+        /**
+         * This method returns ImageFormat of yuv() buffer (NV21 or YV12)
+         */
+        public int yuvFormat();
+
+        public int width();
+
+        public int height();
+    };
+
     public void surfaceChanged(SurfaceHolder arg0, int arg1, int arg2, int arg3) {
         Log.d(TAG, "call surfaceChanged event");
         synchronized(mSyncObject) {
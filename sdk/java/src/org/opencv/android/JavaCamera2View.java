@@ -55,6 +55,11 @@ public class JavaCamera2View extends CameraBridgeViewBase {
     private HandlerThread mBackgroundThread;
     protected Handler mBackgroundHandler;
 
+    // frames reused across images (ring matches ImageReader depth), staging buffers sized for current preview
+    private static final int FRAME_RING_SIZE = 2;
+    private JavaCamera2Frame[] mFrameRing;
+    private int mFrameRingIdx = 0;
+
     public JavaCamera2View(Context context, int cameraId) {
         super(context, cameraId);
     }
@@ -170,7 +175,7 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 return;
             }
 
-            mImageReader = ImageReader.newInstance(w, h, mPreviewFormat, 2);
+            mImageReader = ImageReader.newInstance(w, h, mPreviewFormat, FRAME_RING_SIZE);
             mImageReader.setOnImageAvailableListener(new ImageReader.OnImageAvailableListener() {
                 @Override
                 public void onImageAvailable(ImageReader reader) {
@@ -183,9 +188,10 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     assert (planes.length == 3);
                     assert (image.getFormat() == mPreviewFormat);
 
-                    JavaCamera2Frame tempFrame = new JavaCamera2Frame(image);
-                    deliverAndDrawFrame(tempFrame);
-                    tempFrame.release();
+                    JavaCamera2Frame frame = nextFrame(image.getWidth(), image.getHeight());
+                    frame.attach(image);
+                    deliverAndDrawFrame(frame);
+                    frame.detach();
                     image.close();
                 }
             }, mBackgroundHandler);
@@ -247,10 +253,35 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                 mImageReader.close();
                 mImageReader = null;
             }
+            // background thread stopped -> no frame in use
+            releaseFrameRing();
         }
         Log.i(LOGTAG, "camera closed!");
     }
 
+    private JavaCamera2Frame nextFrame(int width, int height) {
+        if (mFrameRing == null || mFrameRing[0].mWidth != width || mFrameRing[0].mHeight != height) {
+            releaseFrameRing();
+            mFrameRing = new JavaCamera2Frame[FRAME_RING_SIZE];
+            for (int i = 0; i < FRAME_RING_SIZE; i++) {
+                mFrameRing[i] = new JavaCamera2Frame(width, height);
+            }
+            mFrameRingIdx = 0;
+        }
+        JavaCamera2Frame frame = mFrameRing[mFrameRingIdx];
+        mFrameRingIdx = (mFrameRingIdx + 1) % FRAME_RING_SIZE;
+        return frame;
+    }
+
+    private void releaseFrameRing() {
+        if (mFrameRing == null)
+            return;
+        for (JavaCamera2Frame frame : mFrameRing) {
+            frame.release();
+        }
+        mFrameRing = null;
+    }
+
     public static class JavaCameraSizeAccessor implements ListItemAccessor {
         @Override
         public int getWidth(Object obj) {
@@ -330,47 +361,49 @@ public class JavaCamera2View extends CameraBridgeViewBase {
     private class JavaCamera2Frame implements CvCameraViewFrame {
         @Override
         public Mat gray() {
-            Image.Plane[] planes = mImage.getPlanes();
-            int w = mImage.getWidth();
-            int h = mImage.getHeight();
-            assert(planes[0].getPixelStride() == 1);
-            ByteBuffer y_plane = planes[0].getBuffer();
-            int y_plane_step = planes[0].getRowStride();
-            mGray = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
+            // header over Y plane, created once per image (again only if caller released it)
+            if (mGray == null || mGray.empty()) {
+                if (mGray != null)
+                    mGray.release();
+                Image.Plane[] planes = mImage.getPlanes();
+                assert(planes[0].getPixelStride() == 1);
+                mGray = new Mat(mHeight, mWidth, CvType.CV_8UC1, planes[0].getBuffer(), planes[0].getRowStride());
+            }
             return mGray;
         }
 
         @Override
         public Mat rgba() {
             Image.Plane[] planes = mImage.getPlanes();
-            int w = mImage.getWidth();
-            int h = mImage.getHeight();
+            int w = mWidth;
+            int h = mHeight;
             int chromaPixelStride = planes[1].getPixelStride();
 
 
             if (chromaPixelStride == 2) { // Chroma channels are interleaved
                 assert(planes[0].getPixelStride() == 1);
                 assert(planes[2].getPixelStride() == 2);
-                ByteBuffer y_plane = planes[0].getBuffer();
-                int y_plane_step = planes[0].getRowStride();
-                ByteBuffer uv_plane1 = planes[1].getBuffer();
-                int uv_plane1_step = planes[1].getRowStride();
-                ByteBuffer uv_plane2 = planes[2].getBuffer();
-                int uv_plane2_step = planes[2].getRowStride();
-                Mat y_mat = new Mat(h, w, CvType.CV_8UC1, y_plane, y_plane_step);
-                Mat uv_mat1 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane1, uv_plane1_step);
-                Mat uv_mat2 = new Mat(h / 2, w / 2, CvType.CV_8UC2, uv_plane2, uv_plane2_step);
-                long addr_diff = uv_mat2.dataAddr() - uv_mat1.dataAddr();
-                if (addr_diff > 0) {
-                    assert(addr_diff == 1);
-                    Imgproc.cvtColorTwoPlane(y_mat, uv_mat1, mRgba, Imgproc.COLOR_YUV2RGBA_NV12);
-                } else {
-                    assert(addr_diff == -1);
-                    Imgproc.cvtColorTwoPlane(y_mat, uv_mat2, mRgba, Imgproc.COLOR_YUV2RGBA_NV21);
+                if (mYMat == null) {
+                    mYMat = new Mat(h, w, CvType.CV_8UC1, planes[0].getBuffer(), planes[0].getRowStride());
+                }
+                // chroma order is fixed for a camera -> found once, one chroma header per image afterwards
+                if (mChromaOrder == 0) {
+                    Mat uv_mat1 = new Mat(h / 2, w / 2, CvType.CV_8UC2, planes[1].getBuffer(), planes[1].getRowStride());
+                    Mat uv_mat2 = new Mat(h / 2, w / 2, CvType.CV_8UC2, planes[2].getBuffer(), planes[2].getRowStride());
+                    long addr_diff = uv_mat2.dataAddr() - uv_mat1.dataAddr();
+                    assert(addr_diff == 1 || addr_diff == -1);
+                    mChromaOrder = addr_diff > 0 ? Imgproc.COLOR_YUV2RGBA_NV12 : Imgproc.COLOR_YUV2RGBA_NV21;
+                    uv_mat1.release();
+                    uv_mat2.release();
+                }
+                if (mUvMat == null) {
+                    Image.Plane first = mChromaOrder == Imgproc.COLOR_YUV2RGBA_NV12 ? planes[1] : planes[2];
+                    mUvMat = new Mat(h / 2, w / 2, CvType.CV_8UC2, first.getBuffer(), first.getRowStride());
                 }
+                Imgproc.cvtColorTwoPlane(mYMat, mUvMat, mRgba, mChromaOrder);
                 return mRgba;
             } else { // Chroma channels are not interleaved
-                byte[] yuv_bytes = new byte[w*(h+h/2)];
+                byte[] yuv_bytes = mYuvBytes;
                 ByteBuffer y_plane = planes[0].getBuffer();
                 ByteBuffer u_plane = planes[1].getBuffer();
                 ByteBuffer v_plane = planes[2].getBuffer();
@@ -420,28 +453,62 @@ public class JavaCamera2View extends CameraBridgeViewBase {
                     }
                 }
 
-                Mat yuv_mat = new Mat(h+h/2, w, CvType.CV_8UC1);
-                yuv_mat.put(0, 0, yuv_bytes);
-                Imgproc.cvtColor(yuv_mat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
+                mYuvMat.put(0, 0, yuv_bytes);
+                Imgproc.cvtColor(mYuvMat, mRgba, Imgproc.COLOR_YUV2RGBA_I420, 4);
                 return mRgba;
             }
         }
 
 
-        public JavaCamera2Frame(Image image) {
+        public JavaCamera2Frame(int width, int height) {
             super();
+            mWidth = width;
+            mHeight = height;
+            mRgba = new Mat(height, width, CvType.CV_8UC4);
+            mYuvBytes = new byte[width * (height + height / 2)];
+            mYuvMat = new Mat(height + height / 2, width, CvType.CV_8UC1);
+        }
+
+        // image of this frame until detach(), plane headers belong to it
+        public void attach(Image image) {
             mImage = image;
-            mRgba = new Mat();
-            mGray = new Mat();
+        }
+
+        public void detach() {
+            if (mGray != null) {
+                mGray.release();
+                mGray = null;
+            }
+            if (mYMat != null) {
+                mYMat.release();
+                mYMat = null;
+            }
+            if (mUvMat != null) {
+                mUvMat.release();
+                mUvMat = null;
+            }
+            mImage = null;
         }
 
         public void release() {
+            detach();
             mRgba.release();
-            mGray.release();
+            mYuvMat.release();
         }
 
         private Image mImage;
-        private Mat mRgba;
+        private final int mWidth;
+        private final int mHeight;
+
+        // pooled for preview size
+        private final Mat mRgba;
+        private final byte[] mYuvBytes;
+        private final Mat mYuvMat;
+
+        // headers over planes of attached image (plane buffers change with every image)
         private Mat mGray;
+        private Mat mYMat;
+        private Mat mUvMat;
+        private int mChromaOrder = 0;
     };
 }
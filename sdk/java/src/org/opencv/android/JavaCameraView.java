@@ -310,12 +310,32 @@ public class JavaCameraView extends CameraBridgeViewBase implements PreviewCallb
             mCamera.addCallbackBuffer(mBuffer);
     }
 
-    private class JavaCameraFrame implements CvCameraViewFrame {
+    private class JavaCameraFrame implements CvCameraViewYuvFrame {
         @Override
         public Mat gray() {
             return mYuvFrameData.submat(0, mHeight, 0, mWidth);
         }
 
+        @Override
+        public Mat yuv() {
+            return mYuvFrameData;
+        }
+
+        @Override
+        public int yuvFormat() {
+            return mPreviewFormat;
+        }
+
+        @Override
+        public int width() {
+            return mWidth;
+        }
+
+        @Override
+        public int height() {
+            return mHeight;
+        }
+
         @Override
         public Mat rgba() {
             if (mPreviewFormat == ImageFormat.NV21)